@@ -14,17 +14,45 @@ import android.widget.Toast;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 public class AppUI extends AppCompatActivity implements UserInterface {
 
+    /** the bots' replies still being computed in the background, if any */
+    private Future<?> pendingMoves;
+
+    /** delivers the results of bot moves on the UI thread */
+    private final Executor uiThread = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            AppUI.this.runOnUiThread(runnable);
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         this.onBackPressed();
     }
 
+    @Override
+    protected void onDestroy() {
+        this.cancelPendingMoves();
+        super.onDestroy();
+    }
+
+    /** abandons bot moves for a game that is no longer shown */
+    private void cancelPendingMoves() {
+        if (this.pendingMoves != null) {
+            this.pendingMoves.cancel(true);
+            this.pendingMoves = null;
+        }
+    }
+
     @Override
     public void onBackPressed() {
+        this.cancelPendingMoves();
         LinearLayout layout = new LinearLayout(this);
         layout.setOrientation(LinearLayout.VERTICAL);
         TextView tv = new TextView(this);
@@ -59,7 +87,11 @@ public class AppUI extends AppCompatActivity implements UserInterface {
                     ).show();
                     return;
                 } else {
-                    AppUI.this.startGame(new TTTGame(players, bots));
+                    TTTGame game = new TTTGame(players, bots);
+                    // bots move in the background and report back on the UI thread, without debug output
+                    game.setDebug(false);
+                    game.setExecutors(null, AppUI.this.uiThread);
+                    AppUI.this.startGame(game);
                 }
             }
         });
@@ -86,17 +118,53 @@ public class AppUI extends AppCompatActivity implements UserInterface {
             }
         }
         final List<PosButton> buttons = new ArrayList<PosButton>();
-        AppUI.this.setTitle(game.getTitle());
-        TableLayout layout = new TableLayout(AppUI.this);
         final int xSize = game.getHorizontalSize();
         final int ySize = game.getVerticalSize();
+        // only the buttons of cells that changed are updated
+        game.addGameListener(new GameListener() {
+            @Override
+            public void moveMade(Coordinate pos, int player) {
+                buttons.get(pos.getY() * xSize + pos.getX()).setText(Integer.toString(player));
+            }
+
+            @Override
+            public void moveUndone(Coordinate pos, int player) {
+                buttons.get(pos.getY() * xSize + pos.getX()).setText(" ");
+            }
+
+            @Override
+            public void gameWon(Coordinate pos, int player) {
+                AppUI.this.cancelPendingMoves();
+                AppUI.this.showResult("Player "+player+" wins!");
+            }
+
+            @Override
+            public void gameDrawn(Coordinate pos) {
+                AppUI.this.cancelPendingMoves();
+                AppUI.this.showResult("This is a DRAW!");
+            }
+        });
+        final MoveCallback botsDone = new MoveCallback() {
+            @Override
+            public void movesDone() {
+                AppUI.this.pendingMoves = null;
+            }
+
+            @Override
+            public void moveFailed(Exception e) {
+                AppUI.this.pendingMoves = null;
+                Toast.makeText(AppUI.this, "Bot failed: "+e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        };
+        AppUI.this.setTitle(game.getTitle());
+        TableLayout layout = new TableLayout(AppUI.this);
         for (int i = 0; i < ySize; i++) {
             layout.setColumnStretchable(i, true);
         }
         for (int i = 0; i < ySize; i++) {
             TableRow row = new TableRow(AppUI.this);
             for (int j = 0; j < xSize; j++) {
-                Coordinate pos = new XYCoordinate(j, i);
+                Coordinate pos = XYCoordinate.valueOf(j, i);
                 PosButton b = new PosButton(pos);
                 buttons.add(b);
                 b.setText(" ");
@@ -104,12 +172,9 @@ public class AppUI extends AppCompatActivity implements UserInterface {
                     @Override
                     public void onClick(View view) {
                         Coordinate pos = ((PosButton) view).pos;
-                        if (game.isFree(pos)) {
-                            game.addMove(pos);
-                            for (PosButton button : buttons) {
-                                button.setText(game.getContent(button.pos));
-                            }
-                            game.checkResult();
+                        // clicks are ignored while the bots are thinking
+                        if (!game.isThinking() && game.isFree(pos)) {
+                            AppUI.this.pendingMoves = game.addMoveAsync(pos, botsDone);
                         }
                     }
                 });
@@ -39,7 +39,7 @@ public class CLI implements UserInterface {
             while (true) {
                 int x = this.getParameter("x coordinate", 1, game.getHorizontalSize())-1;
                 int y = this.getParameter("y coordinate", 1, game.getVerticalSize())-1;
-                pos = new XYCoordinate(x,y);
+                pos = XYCoordinate.valueOf(x,y);
                 if (game.isFree(pos)) {
                     break;
                 }
@@ -8,7 +8,7 @@ import javax.swing.*;
 import javax.swing.border.*;
 
 @SuppressWarnings("serial")
-public class GUI extends JFrame implements UserInterface, MouseListener {
+public class GUI extends JFrame implements UserInterface, MouseListener, GameListener {
 
     public static void main(String[] args) {
         GUI ui = new GUI();
@@ -27,6 +27,7 @@ public class GUI extends JFrame implements UserInterface, MouseListener {
     @Override
     public void startGame(Game game) {
         game.setUserInterface(this);
+        game.addGameListener(this);
         this.setTitle(game.getTitle());
         this.game = game;
         int xSize = this.game.getHorizontalSize();
@@ -36,7 +37,7 @@ public class GUI extends JFrame implements UserInterface, MouseListener {
         content.setLayout(new GridLayout(ySize,xSize));
         for (int y = 0; y < ySize; y++) {
             for (int x = 0; x < xSize; x++) {
-                Coordinate pos = new XYCoordinate(x,y);
+                Coordinate pos = XYCoordinate.valueOf(x,y);
                 JLabel label = new JLabel(this.game.getContent(pos), JLabel.CENTER);
                 label.setFont(new Font("Arial Bold", Font.BOLD, 42));
                 JPanel panel = new JPanel(new BorderLayout());
@@ -60,11 +61,24 @@ public class GUI extends JFrame implements UserInterface, MouseListener {
         return this.panel2pos.get(panel);
     }
 
-    // update all positions
-    private void updateLabels() {
-        for (Map.Entry<Coordinate,JLabel> entry : this.pos2label.entrySet()) {
-            entry.getValue().setText(this.game.getContent(entry.getKey()));
-        }
+    // update only the positions that changed
+    @Override
+    public void moveMade(Coordinate pos, int player) {
+        this.pos2label.get(pos).setText(Integer.toString(player));
+    }
+
+    @Override
+    public void moveUndone(Coordinate pos, int player) {
+        this.pos2label.get(pos).setText("");
+    }
+
+    @Override
+    public void gameWon(Coordinate pos, int player) {
+        // results are shown by checkResult after the click
+    }
+
+    @Override
+    public void gameDrawn(Coordinate pos) {
     }
 
     @Override
@@ -72,7 +86,6 @@ public class GUI extends JFrame implements UserInterface, MouseListener {
         Coordinate pos = getPosition(event.getComponent());
         if (this.game.isFree(pos)) {
             this.game.addMove(pos);
-            this.updateLabels();
             this.game.checkResult();
         }
     }
@@ -0,0 +1,73 @@
+package dm550.tictactoe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** benchmarks of the TTTBoard operations every move goes through
+ * the 15 and 31 player boards (16x16 and 32x32) stand in for large custom sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"2", "3", "4", "5", "6", "15", "31"})
+    public int numPlayers;
+
+    /** the board addMove fills, reset after every invocation */
+    private TTTBoard board;
+    private TTTBoard empty;
+    private int[] moves;
+
+    /** position about half full without a winner */
+    private TTTBoard midGame;
+
+    @Setup
+    public void setUp() {
+        this.empty = new TTTBoard(this.numPlayers);
+        this.board = this.empty.snapshot();
+        this.moves = Positions.randomFill(this.numPlayers, 550);
+        this.midGame = Positions.midGame(this.numPlayers, 550);
+    }
+
+    /** fills the whole board move by move */
+    @Benchmark
+    public TTTBoard addMove() {
+        TTTBoard board = this.board;
+        board.restore(this.empty);
+        int[] moves = this.moves;
+        for (int i = 0; i < moves.length; ++i) {
+            board.addMove(moves[i], i % this.numPlayers + 1);
+        }
+        return board;
+    }
+
+    @Benchmark
+    public int checkWinning() {
+        return this.midGame.checkWinning();
+    }
+
+    @Benchmark
+    public int checkLastMove() {
+        return this.midGame.checkLastMove();
+    }
+
+    @Benchmark
+    public boolean checkFull() {
+        return this.midGame.checkFull();
+    }
+}
@@ -0,0 +1,77 @@
+package dm550.tictactoe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** benchmarks of the TTTBot heuristic on a position about half full */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotBenchmark {
+
+    private static final int BATCH_SIZE = 256;
+
+    @Param({"2", "3", "4", "5", "6", "15", "31"})
+    public int numPlayers;
+
+    private TTTBoard board;
+    private TTTBot bot;
+
+    /** a free cell in the middle of the action */
+    private int cell;
+
+    /** positions for the batch benchmark */
+    private TTTBoard[] batch;
+    private int[] batchMoves;
+
+    @Setup
+    public void setUp() {
+        this.board = Positions.midGame(this.numPlayers, 550);
+        this.bot = new TTTBot(this.board.getMoveCount() % this.numPlayers + 1, this.numPlayers);
+        this.cell = this.board.nextFree(this.board.getCellCount() / 2);
+        if (this.cell < 0) {
+            this.cell = this.board.nextFree(0);
+        }
+        this.batch = new TTTBoard[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            this.batch[i] = Positions.midGame(this.numPlayers, 550 + 1000 * i);
+        }
+        this.batchMoves = new int[BATCH_SIZE];
+    }
+
+    @Benchmark
+    public int getMove() {
+        return this.bot.getMoveIndex(this.board);
+    }
+
+    @Benchmark
+    public Coordinate getMoveCoordinate() {
+        return this.bot.getMove(this.board);
+    }
+
+    /** one batch of BATCH_SIZE positions, divide by it to compare with getMove */
+    @Benchmark
+    public int[] getMoveBatch() {
+        this.bot.getMoveIndices(this.batch, BATCH_SIZE, this.batchMoves);
+        return this.batchMoves;
+    }
+
+    @Benchmark
+    public int getScore() {
+        return this.bot.getScore(this.board, this.cell);
+    }
+}
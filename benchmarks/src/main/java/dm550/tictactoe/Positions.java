@@ -0,0 +1,45 @@
+package dm550.tictactoe;
+
+import java.util.Random;
+
+/** reproducible board positions for the benchmarks */
+final class Positions {
+
+    private Positions() {
+    }
+
+    /** returns the moves of a random game filling the whole board, ignoring wins */
+    static int[] randomFill(int numPlayers, long seed) {
+        int cells = (numPlayers + 1) * (numPlayers + 1);
+        int[] moves = new int[cells];
+        for (int i = 0; i < cells; ++i) {
+            moves[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = cells - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int swap = moves[i];
+            moves[i] = moves[j];
+            moves[j] = swap;
+        }
+        return moves;
+    }
+
+    /** returns a position about half full that nobody has won yet
+     * the players take turns, starting with Player 1
+     */
+    static TTTBoard midGame(int numPlayers, long seed) {
+        for (;; ++seed) {
+            int[] moves = randomFill(numPlayers, seed);
+            TTTBoard board = new TTTBoard(numPlayers);
+            boolean won = false;
+            for (int i = 0; i < moves.length / 2 && !won; ++i) {
+                board.addMove(moves[i], i % numPlayers + 1);
+                won = board.checkLastMove() != 0;
+            }
+            if (!won) {
+                return board;
+            }
+        }
+    }
+}
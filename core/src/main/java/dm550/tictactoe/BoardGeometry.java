@@ -0,0 +1,239 @@
+package dm550.tictactoe;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** precomputed, immutable tables for a board of a given shape
+ * shared between all boards of the same shape, so creating a board is cheap
+ * cells are indexed row by row: index = y * width + x
+ */
+final class BoardGeometry {
+
+    /** the four line directions (right, down, down-right, down-left) */
+    static final int[] DX = {1, 0, 1, -1};
+    static final int[] DY = {0, 1, 1, 1};
+
+    /** cache of geometries by shape */
+    private static final ConcurrentMap<Long, BoardGeometry> CACHE = new ConcurrentHashMap<Long, BoardGeometry>();
+
+    /** horizontal size of the board */
+    final int width;
+
+    /** vertical size of the board */
+    final int height;
+
+    /** number of marks in a row needed to win */
+    final int runLength;
+
+    /** total number of cells */
+    final int cells;
+
+    /** number of longs needed for one bitmask */
+    final int words;
+
+    /** bitmask with a bit set for every cell on the board */
+    final long[] fullMask;
+
+    /** index distance between neighbouring cells in each direction */
+    final int[] step;
+
+    /** canonical coordinate of every cell, indexed by bit index */
+    final Coordinate[] coordinates;
+
+    /** runStart[d] has a bit set for every cell from which a run of runLength
+     * cells in direction d stays on the board
+     */
+    final long[][] runStart;
+
+    /** the 12 pairs of cells around every cell the TTTBot heuristic looks at
+     * the pairs of cell i are at neighbourPairs[i*24] to neighbourPairs[i*24+23], two indices each,
+     * in the order: for each direction clockwise from NW the two closest cells in that direction,
+     * for four of them also the two cells on either side, see TTTBot.getScore
+     * both entries of a pair are -1 if one of its cells is off the board
+     */
+    final int[] neighbourPairs;
+
+    /** number of distinct runs of runLength cells that fit on the board */
+    final int numLines;
+
+    /** cells of every run, line l occupies lineCells[l*runLength] to lineCells[(l+1)*runLength-1] */
+    final int[] lineCells;
+
+    /** lines through every cell, the lines through cell i are cellLines[cellLineStart[i]] to
+     * cellLines[cellLineStart[i+1]-1], at most 4*runLength of them
+     */
+    final int[] cellLineStart;
+    final int[] cellLines;
+
+    /** symmetries[t][i] is the cell that cell i is moved to by transform t (see Symmetry)
+     * null for the transforms that do not map the board onto itself, i.e. the ones
+     * swapping the axes when the board is not square
+     */
+    final int[][] symmetries;
+
+    private BoardGeometry(int width, int height, int runLength) {
+        this.width = width;
+        this.height = height;
+        this.runLength = runLength;
+        this.cells = width * height;
+        this.words = (this.cells + 63) >>> 6;
+
+        this.fullMask = new long[this.words];
+        this.coordinates = new Coordinate[this.cells];
+        for (int i = 0; i < this.cells; ++i) {
+            this.fullMask[i >>> 6] |= 1L << i;
+            this.coordinates[i] = XYCoordinate.valueOf(i % width, i / width);
+        }
+
+        this.step = new int[DX.length];
+        this.runStart = new long[DX.length][this.words];
+        for (int d = 0; d < DX.length; ++d) {
+            this.step[d] = DY[d] * width + DX[d];
+            int endX = DX[d] * (runLength - 1);
+            int endY = DY[d] * (runLength - 1);
+            for (int y = 0; y < height; ++y) {
+                for (int x = 0; x < width; ++x) {
+                    if (x + endX < 0 || x + endX >= width || y + endY >= height) {
+                        continue;
+                    }
+                    int i = y * width + x;
+                    this.runStart[d][i >>> 6] |= 1L << i;
+                }
+            }
+        }
+
+        this.neighbourPairs = new int[this.cells * 24];
+        for (int i = 0; i < this.cells; ++i) {
+            int k = i * 24;
+            for (int dx = -1; dx < 2; ++dx) {
+                for (int dy = -1; dy < 2; ++dy) {
+                    if (dx == 0 && dy == 0) { continue; }
+                    k = this.putPair(k, i, dx, dy, 2*dx, 2*dy);
+                    if (dx > -1 && !(dy == -1 && dx == 0)) {
+                        k = this.putPair(k, i, -dx, -dy, dx, dy);
+                    }
+                }
+            }
+        }
+
+        int lines = 0;
+        for (int d = 0; d < DX.length; ++d) {
+            for (long word : this.runStart[d]) {
+                lines += Long.bitCount(word);
+            }
+        }
+        this.numLines = lines;
+        this.lineCells = new int[lines * runLength];
+        int l = 0;
+        for (int d = 0; d < DX.length; ++d) {
+            for (int i = 0; i < this.cells; ++i) {
+                if ((this.runStart[d][i >>> 6] & (1L << i)) == 0) {
+                    continue;
+                }
+                for (int j = 0; j < runLength; ++j) {
+                    this.lineCells[l++] = i + j * this.step[d];
+                }
+            }
+        }
+
+        this.cellLineStart = new int[this.cells + 1];
+        for (int j = 0; j < this.lineCells.length; ++j) {
+            this.cellLineStart[this.lineCells[j] + 1]++;
+        }
+        for (int i = 0; i < this.cells; ++i) {
+            this.cellLineStart[i + 1] += this.cellLineStart[i];
+        }
+        this.cellLines = new int[this.lineCells.length];
+        int[] fill = this.cellLineStart.clone();
+        for (int j = 0; j < this.lineCells.length; ++j) {
+            this.cellLines[fill[this.lineCells[j]]++] = j / runLength;
+        }
+
+        this.symmetries = new int[8][];
+        for (int t = 0; t < 8; ++t) {
+            boolean swapsAxes = (t & 1) != 0;
+            if (swapsAxes && width != height) {
+                continue;
+            }
+            this.symmetries[t] = new int[this.cells];
+            for (int i = 0; i < this.cells; ++i) {
+                int x = i % width;
+                int y = i / width;
+                // mirror first, then rotate clockwise a quarter turn (t & 3) times
+                if ((t & 4) != 0) {
+                    x = width - 1 - x;
+                }
+                int rows = height;
+                for (int r = 0; r < (t & 3); ++r) {
+                    int rotated = rows - 1 - y;
+                    y = x;
+                    x = rotated;
+                    rows = rows == height ? width : height;
+                }
+                this.symmetries[t][i] = y * width + x;
+            }
+        }
+    }
+
+    /** internal helper storing the pair of cells shifted from cell i at neighbourPairs[k] */
+    private int putPair(int k, int i, int dx1, int dy1, int dx2, int dy2) {
+        int x = i % this.width;
+        int y = i / this.width;
+        if (this.isOnBoard(x + dx1, y + dy1) && this.isOnBoard(x + dx2, y + dy2)) {
+            this.neighbourPairs[k] = (y + dy1) * this.width + x + dx1;
+            this.neighbourPairs[k + 1] = (y + dy2) * this.width + x + dx2;
+        } else {
+            this.neighbourPairs[k] = -1;
+            this.neighbourPairs[k + 1] = -1;
+        }
+        return k + 2;
+    }
+
+    /** checks whether (x,y) is on the board */
+    boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < this.width && y >= 0 && y < this.height;
+    }
+
+    /** returns the (shared) geometry for the given board shape
+     * the shape is the cache key, packed into 21 bits per value, see TTTBoard for the limits
+     */
+    static BoardGeometry get(int width, int height, int runLength) {
+        if (width < 1 || width > MAX_SIDE || height < 1 || height > MAX_SIDE
+                || runLength < 1 || runLength > MAX_SIDE) {
+            throw new IllegalArgumentException("Invalid board shape "+width+"x"+height+", "+runLength+" in a row");
+        }
+        if ((long) width * height > MAX_CELLS) {
+            throw new IllegalArgumentException("Board "+width+"x"+height+" has more than "+MAX_CELLS+" cells");
+        }
+        Long key = ((long) width << 42) | ((long) height << 21) | runLength;
+        BoardGeometry geometry = CACHE.get(key);
+        if (geometry == null) {
+            geometry = new BoardGeometry(width, height, runLength);
+            BoardGeometry existing = CACHE.putIfAbsent(key, geometry);
+            if (existing != null) {
+                geometry = existing;
+            }
+        }
+        return geometry;
+    }
+
+    /** largest width, height or run length of a board, so a shape fits into the cache key */
+    static final int MAX_SIDE = (1 << 21) - 1;
+
+    /** largest number of cells of a board, so tables with up to 24 entries per cell can be indexed by an int */
+    static final int MAX_CELLS = 1 << 24;
+
+    /** returns bit number shift of mask, i.e. bit i of the result is bit i+shift of mask */
+    static long shiftedWord(long[] mask, int word, int shift) {
+        int from = word + (shift >>> 6);
+        int bits = shift & 63;
+        if (from >= mask.length) {
+            return 0;
+        }
+        long result = mask[from] >>> bits;
+        if (bits != 0 && from + 1 < mask.length) {
+            result |= mask[from + 1] << (64 - bits);
+        }
+        return result;
+    }
+}
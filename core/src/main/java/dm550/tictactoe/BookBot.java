@@ -0,0 +1,65 @@
+package dm550.tictactoe;
+
+/** plays the book move while the position is in an opening book,
+ * and lets another bot decide once it is out of book
+ */
+public class BookBot implements Bot {
+
+    private final Bot bot;
+
+    private final OpeningBook book;
+
+    /** constructor wrapping the given bot, book may be null to play without one */
+    public BookBot(Bot bot, OpeningBook book) {
+        this.bot = bot;
+        this.book = book;
+    }
+
+    @Override
+    public int getID() {
+        return this.bot.getID();
+    }
+
+    @Override
+    public Coordinate getMove(TTTBoard board) {
+        return board.getCoordinate(this.getMoveIndex(board));
+    }
+
+    @Override
+    public int getMoveIndex(TTTBoard board) {
+        int move = this.book == null ? -1 : this.book.lookup(board);
+        return move >= 0 ? move : this.bot.getMoveIndex(board);
+    }
+
+    /** answers the boards in the book directly and passes the others on to the wrapped bot as one batch */
+    @Override
+    public void getMoveIndices(TTTBoard[] boards, int count, int[] moves) {
+        TTTBoard[] rest = new TTTBoard[count];
+        int[] positions = new int[count];
+        int missed = 0;
+        for (int i = 0; i < count; ++i) {
+            moves[i] = this.book == null ? -1 : this.book.lookup(boards[i]);
+            if (moves[i] < 0) {
+                rest[missed] = boards[i];
+                positions[missed++] = i;
+            }
+        }
+        if (missed == 0) {
+            return;
+        }
+        int[] restMoves = new int[missed];
+        this.bot.getMoveIndices(rest, missed, restMoves);
+        for (int j = 0; j < missed; ++j) {
+            moves[positions[j]] = restMoves[j];
+        }
+    }
+
+    @Override
+    public String debug(TTTBoard board) {
+        int move = this.book == null ? -1 : this.book.lookup(board);
+        if (move >= 0) {
+            return "Book move "+board.getCoordinate(move)+"\n";
+        }
+        return this.bot.debug(board);
+    }
+}
@@ -0,0 +1,19 @@
+package dm550.tictactoe;
+
+public interface Bot {
+    /* gets the bot's ID */
+    int getID();
+
+    /* makes a move, returning the coordinate the bot played on */
+    Coordinate getMove(TTTBoard board);
+
+    /* makes a move, returning the index (see TTTBoard.getIndex) the bot played on */
+    int getMoveIndex(TTTBoard board);
+
+    /* makes a move on each of the first count boards, storing the index played on boards[i] in moves[i]
+     * gives the same moves as getMoveIndex, but lets a bot with many games waiting score them together */
+    void getMoveIndices(TTTBoard[] boards, int count, int[] moves);
+
+    /* returns debug string */
+    String debug(TTTBoard board);
+}
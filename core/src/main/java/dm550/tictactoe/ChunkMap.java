@@ -0,0 +1,87 @@
+package dm550.tictactoe;
+
+/** hash map from long keys to chunks of cells, used by SparseTTTBoard
+ * open addressing with linear probing over plain arrays, so looking up a chunk
+ * neither boxes the key nor allocates
+ * chunks are never removed
+ */
+final class ChunkMap {
+
+    /** keys of the occupied slots */
+    private long[] keys;
+
+    /** chunk stored in every slot, null for an empty slot */
+    private byte[][] chunks;
+
+    /** number of chunks in the map */
+    private int size;
+
+    /** number of cells in every chunk */
+    private final int chunkCells;
+
+    ChunkMap(int chunkCells) {
+        this.chunkCells = chunkCells;
+        this.keys = new long[16];
+        this.chunks = new byte[16][];
+    }
+
+    /** returns the chunk with the given key or null if there is none */
+    byte[] get(long key) {
+        int mask = this.keys.length - 1;
+        for (int i = slot(key, mask); this.chunks[i] != null; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                return this.chunks[i];
+            }
+        }
+        return null;
+    }
+
+    /** returns the chunk with the given key, adding an empty one if there is none */
+    byte[] getOrCreate(long key) {
+        byte[] chunk = this.get(key);
+        if (chunk != null) {
+            return chunk;
+        }
+        // keep the map at most half full, so probe sequences stay short
+        if (2 * (this.size + 1) > this.keys.length) {
+            this.grow();
+        }
+        chunk = new byte[this.chunkCells];
+        this.insert(key, chunk);
+        this.size++;
+        return chunk;
+    }
+
+    /** getter for the number of chunks */
+    int size() {
+        return this.size;
+    }
+
+    private void insert(long key, byte[] chunk) {
+        int mask = this.keys.length - 1;
+        int i = slot(key, mask);
+        while (this.chunks[i] != null) {
+            i = (i + 1) & mask;
+        }
+        this.keys[i] = key;
+        this.chunks[i] = chunk;
+    }
+
+    private void grow() {
+        long[] oldKeys = this.keys;
+        byte[][] oldChunks = this.chunks;
+        this.keys = new long[oldKeys.length * 2];
+        this.chunks = new byte[oldChunks.length * 2][];
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldChunks[i] != null) {
+                this.insert(oldKeys[i], oldChunks[i]);
+            }
+        }
+    }
+
+    /** first slot to probe for a key, neighbouring chunks must not cluster */
+    private static int slot(long key, int mask) {
+        long z = (key ^ (key >>> 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (z >>> 32) & mask;
+    }
+}
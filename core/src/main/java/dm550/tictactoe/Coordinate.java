@@ -9,7 +9,12 @@ public interface Coordinate {
     /** getter for the y value */
     public int getY();
     
-    /** check whether this position is valid for the given board size */
+    /** size of a board that has no edge in that direction, see checkBoundaries */
+    public static final int UNBOUNDED = -1;
+
+    /** check whether this position is valid for the given board size
+     * a size of UNBOUNDED accepts any value, including negative ones, on that axis
+     */
     public boolean checkBoundaries(int xSize, int ySize);
 
     /** move the position by dx to the right and by dy down */
@@ -0,0 +1,60 @@
+package dm550.tictactoe;
+
+import java.util.concurrent.Future;
+
+public interface Game {
+
+    /** title of the game */
+    String getTitle();
+    
+    /** horizontal size of the board */
+    int getHorizontalSize();
+
+    /** vertical size of the board */
+    int getVerticalSize();
+
+    /** string representation of the position
+     * useful for user interface
+     */
+    String getContent(Coordinate pos);
+
+    /** string representation of the position with index y*getHorizontalSize()+x */
+    String getContent(int index);
+
+    /** record a move on a given position */
+    void addMove(Coordinate pos);
+
+    /** record a move on the position with index y*getHorizontalSize()+x */
+    void addMove(int index);
+
+    /** record a move on a given position, the bots reply in the background
+     * the callback is told when it is a human player's turn again or the game is over
+     * cancelling the returned future abandons the bots' search, they may be resumed later
+     */
+    Future<?> addMoveAsync(Coordinate pos, MoveCallback callback);
+
+    /** record a move on the position with index y*getHorizontalSize()+x, the bots reply in the background */
+    Future<?> addMoveAsync(int index, MoveCallback callback);
+
+    /** returns true while bots are making their moves in the background */
+    boolean isThinking();
+
+    /** check if some player wins or it is a draw */
+    void checkResult();
+
+    /** returns true, if and only if, the position is free */
+    boolean isFree(Coordinate pos);
+
+    /** returns true, if and only if, the position with index y*getHorizontalSize()+x is free */
+    boolean isFree(int index);
+    
+    /** registers a listener for moves and results */
+    void addGameListener(GameListener listener);
+
+    /** unregisters a listener */
+    void removeGameListener(GameListener listener);
+
+    /** provide a user interface to the game */
+    void setUserInterface(UserInterface ui);
+    
+}
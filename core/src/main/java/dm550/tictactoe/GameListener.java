@@ -0,0 +1,21 @@
+package dm550.tictactoe;
+
+/** observer of a game, told about every change so a user interface can update just the affected cells
+ * the methods are called through the game's callback executor (see TTTGame.setExecutors),
+ * or directly on the thread changing the game if there is none
+ */
+public interface GameListener {
+
+    /** the player made a move on the given position */
+    void moveMade(Coordinate pos, int player);
+
+    /** the player's move on the given position was taken back */
+    void moveUndone(Coordinate pos, int player);
+
+    /** the player won with the move on the given position */
+    void gameWon(Coordinate pos, int player);
+
+    /** the move on the given position filled the board without anybody winning */
+    void gameDrawn(Coordinate pos);
+
+}
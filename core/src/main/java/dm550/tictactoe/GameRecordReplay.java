@@ -0,0 +1,329 @@
+package dm550.tictactoe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** replays game record files (see GameRecordWriter) and gathers statistics about the games
+ * the file is split at block boundaries into one range per thread, every range is memory-mapped
+ * and its games are replayed on a single board per thread, reset with restore, so replaying allocates nothing per game
+ * gathers wins by seat, win rates by first move, the distribution of game lengths and,
+ * if createBots is overridden, how often the bots would have made the recorded moves
+ * all games are expected to be played on the board of the first block, blocks for other boards are skipped
+ * usage: GameRecordReplay [record file] [threads]
+ */
+public class GameRecordReplay {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        File input = new File(args.length > 0 ? args[0] : "games.rec");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        System.out.println(new GameRecordReplay(input).run(threads));
+    }
+
+    /** statistics of a replay, or of one thread's share of it */
+    public static class Result {
+        private final int width;
+        private final int height;
+        private final int numPlayers;
+
+        /** wins by seat, index 0 counts draws */
+        private final long[] wins;
+
+        /** number of games by the cell of their first move */
+        private final long[] firstMoves;
+
+        /** number of games won by the player making the first move, by the cell of that move */
+        private final long[] firstMoveWins;
+
+        /** number of games by their number of moves */
+        private final long[] lengths;
+
+        private long games;
+        private long moves;
+        private long skipped;
+        private long compared;
+        private long agreed;
+        private long nanos;
+
+        Result(int width, int height, int numPlayers) {
+            this.width = width;
+            this.height = height;
+            this.numPlayers = numPlayers;
+            this.wins = new long[numPlayers + 1];
+            this.firstMoves = new long[width * height];
+            this.firstMoveWins = new long[width * height];
+            this.lengths = new long[width * height + 1];
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < this.wins.length; ++i) {
+                this.wins[i] += other.wins[i];
+            }
+            for (int i = 0; i < this.firstMoves.length; ++i) {
+                this.firstMoves[i] += other.firstMoves[i];
+                this.firstMoveWins[i] += other.firstMoveWins[i];
+            }
+            for (int i = 0; i < this.lengths.length; ++i) {
+                this.lengths[i] += other.lengths[i];
+            }
+            this.games += other.games;
+            this.moves += other.moves;
+            this.skipped += other.skipped;
+            this.compared += other.compared;
+            this.agreed += other.agreed;
+        }
+
+        /** getter for the number of games replayed */
+        public long getGames() {
+            return this.games;
+        }
+
+        /** getter for the number of moves replayed */
+        public long getMoves() {
+            return this.moves;
+        }
+
+        /** getter for the number of games skipped because they were played on another board */
+        public long getSkipped() {
+            return this.skipped;
+        }
+
+        /** returns the number of games won by the given seat, or drawn for seat 0 */
+        public long getWins(int seat) {
+            return this.wins[seat];
+        }
+
+        /** returns the number of games opened on the cell with the given index */
+        public long getFirstMoves(int index) {
+            return this.firstMoves[index];
+        }
+
+        /** returns the share (0-1) of games opened on the cell that were won by the player opening them */
+        public double getFirstMoveWinRate(int index) {
+            return this.firstMoves[index] == 0 ? 0 : (double) this.firstMoveWins[index] / this.firstMoves[index];
+        }
+
+        /** returns the number of games that took the given number of moves */
+        public long getLengthCount(int moves) {
+            return this.lengths[moves];
+        }
+
+        /** returns the share (0-1) of recorded moves the bots would have made too, 0 without bots */
+        public double getAgreement() {
+            return this.compared == 0 ? 0 : (double) this.agreed / this.compared;
+        }
+
+        /** returns the number of games replayed per second */
+        public double getGamesPerSecond() {
+            return this.nanos == 0 ? 0 : this.games * 1e9 / this.nanos;
+        }
+
+        public String toString() {
+            StringBuilder outp = new StringBuilder();
+            outp.append(this.games+" games, "+this.moves+" moves in "+(this.nanos / 1000000)+"ms");
+            outp.append(String.format(", %.0f games/s\n", this.getGamesPerSecond()));
+            if (this.skipped > 0) {
+                outp.append(this.skipped+" games on other boards skipped\n");
+            }
+            for (int seat = 1; seat <= this.numPlayers; ++seat) {
+                outp.append(String.format("Player %d: %.1f%%  ", seat, 100.0 * this.wins[seat] / Math.max(this.games, 1)));
+            }
+            outp.append(String.format("draws: %.1f%%\n", 100.0 * this.wins[0] / Math.max(this.games, 1)));
+            outp.append("win rate of the first player by first move:\n");
+            for (int y = 0; y < this.height; ++y) {
+                for (int x = 0; x < this.width; ++x) {
+                    outp.append(String.format("%6.1f%%", 100 * this.getFirstMoveWinRate(y * this.width + x)));
+                }
+                outp.append("\n");
+            }
+            outp.append("games by length:");
+            for (int i = 0; i < this.lengths.length; ++i) {
+                if (this.lengths[i] > 0) {
+                    outp.append(" "+i+":"+this.lengths[i]);
+                }
+            }
+            outp.append("\n");
+            if (this.compared > 0) {
+                outp.append(String.format("bots agree with %.1f%% of %d moves\n", 100 * this.getAgreement(), this.compared));
+            }
+            return outp.toString();
+        }
+    }
+
+    private final File file;
+
+    /** constructor for a replay of the given record file */
+    public GameRecordReplay(File file) {
+        this.file = file;
+    }
+
+    /** creates the bots for one thread, override to measure how often they agree with the recorded moves
+     * the bot for seat i must have ID i, returns null to replay without bots
+     */
+    protected Bot[] createBots(int numPlayers) {
+        return null;
+    }
+
+    /** replays all games of the file on the given number of threads */
+    public Result run(int threads) throws IOException, InterruptedException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        long start = System.nanoTime();
+        RandomAccessFile raf = new RandomAccessFile(this.file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            final ByteBuffer header = ByteBuffer.allocate(GameRecordWriter.HEADER_SIZE);
+            long[] blocks = indexBlocks(channel, header);
+            int numBlocks = blocks.length - 1;
+            if (numBlocks == 0) {
+                throw new IOException("Empty game record");
+            }
+            header.clear();
+            channel.read(header, 0);
+            final int width = header.getShort(6) & 0xFFFF;
+            final int height = header.getShort(8) & 0xFFFF;
+            final int numPlayers = header.get(10) & 0xFF;
+            final int runLength = header.get(11) & 0xFF;
+
+            // cut the blocks into ranges of about equal size, each small enough to be mapped
+            long size = blocks[numBlocks];
+            List<Callable<Result>> tasks = new ArrayList<Callable<Result>>();
+            for (int first = 0, t = 1; first < numBlocks; ++t) {
+                long target = size * Math.min(t, threads) / threads;
+                int last = first + 1;
+                while (last < numBlocks && blocks[last] < target
+                        && blocks[last + 1] - blocks[first] <= Integer.MAX_VALUE) {
+                    last++;
+                }
+                final long from = blocks[first];
+                final long to = blocks[last];
+                tasks.add(new Callable<Result>() {
+                    @Override
+                    public Result call() throws IOException {
+                        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                        return GameRecordReplay.this.replay(buffer, width, height, numPlayers, runLength);
+                    }
+                });
+                first = last;
+            }
+
+            // files too large to map in one range per thread have more ranges than threads
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+            Result total = new Result(width, height, numPlayers);
+            try {
+                for (Future<Result> result : pool.invokeAll(tasks)) {
+                    total.merge(result.get());
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IllegalStateException("Replay failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+            total.nanos = System.nanoTime() - start;
+            return total;
+        } finally {
+            raf.close();
+        }
+    }
+
+    /** returns the offsets of all blocks in the file, followed by the size of the file
+     * only the headers are read, hopping from one to the next by their payload size
+     */
+    private static long[] indexBlocks(FileChannel channel, ByteBuffer header) throws IOException {
+        long size = channel.size();
+        long[] blocks = new long[64];
+        int count = 0;
+        long offset = 0;
+        while (offset < size) {
+            header.clear();
+            while (header.hasRemaining() && channel.read(header, offset + header.position()) >= 0) {
+                // read the rest of the header
+            }
+            if (header.hasRemaining() || header.getInt(0) != GameRecordWriter.MAGIC) {
+                throw new IOException("Not a game record at offset "+offset);
+            }
+            if (header.getShort(4) != GameRecordWriter.VERSION) {
+                throw new IOException("Unsupported game record version "+header.getShort(4));
+            }
+            if (count + 1 == blocks.length) {
+                blocks = Arrays.copyOf(blocks, 2 * blocks.length);
+            }
+            blocks[count++] = offset;
+            offset += GameRecordWriter.HEADER_SIZE + (header.getInt(16) & 0xFFFFFFFFL);
+        }
+        if (offset != size) {
+            throw new IOException("Truncated game record");
+        }
+        blocks[count] = size;
+        return Arrays.copyOf(blocks, count + 1);
+    }
+
+    /** replays the games of whole blocks in the buffer on the calling thread */
+    private Result replay(ByteBuffer buffer, int width, int height, int numPlayers, int runLength) throws IOException {
+        Result result = new Result(width, height, numPlayers);
+        Bot[] bots = this.createBots(numPlayers);
+        TTTBoard empty = new TTTBoard(numPlayers, width, height, runLength);
+        TTTBoard board = empty.snapshot();
+        while (buffer.hasRemaining()) {
+            int games = buffer.getInt(buffer.position() + 12);
+            int end = buffer.position() + GameRecordWriter.HEADER_SIZE + buffer.getInt(buffer.position() + 16);
+            boolean sameBoard = (buffer.getShort(buffer.position() + 6) & 0xFFFF) == width
+                    && (buffer.getShort(buffer.position() + 8) & 0xFFFF) == height
+                    && (buffer.get(buffer.position() + 10) & 0xFF) == numPlayers
+                    && (buffer.get(buffer.position() + 11) & 0xFF) == runLength;
+            if (!sameBoard) {
+                result.skipped += games;
+                buffer.position(end);
+                continue;
+            }
+            buffer.position(buffer.position() + GameRecordWriter.HEADER_SIZE);
+            for (int g = 0; g < games; ++g) {
+                int moves = GameRecordWriter.getVarint(buffer);
+                board.restore(empty);
+                for (int m = 0; m < moves; ++m) {
+                    int move = GameRecordWriter.getVarint(buffer);
+                    int index = move / numPlayers;
+                    int player = move - index * numPlayers + 1;
+                    if (bots != null) {
+                        result.compared++;
+                        if (bots[player - 1].getMoveIndex(board) == index) {
+                            result.agreed++;
+                        }
+                    }
+                    board.addMove(index, player);
+                }
+                int winner = board.checkLastMove();
+                result.wins[winner]++;
+                result.lengths[moves]++;
+                result.moves += moves;
+                result.games++;
+                if (moves > 0) {
+                    int opening = board.getMoveAt(0);
+                    result.firstMoves[opening]++;
+                    if (winner != 0 && winner == board.getPlayer(opening)) {
+                        result.firstMoveWins[opening]++;
+                    }
+                }
+            }
+            if (buffer.position() != end) {
+                throw new IOException("Corrupt game record");
+            }
+        }
+        return result;
+    }
+}
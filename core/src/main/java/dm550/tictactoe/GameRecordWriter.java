@@ -0,0 +1,229 @@
+package dm550.tictactoe;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/** appends finished games to a record file in a compact binary format
+ * the file is a sequence of blocks, each a header followed by the games in it:
+ *   header (20 bytes): magic "TTTR", short version, unsigned short width, unsigned short height,
+ *                      unsigned byte numPlayers, unsigned byte runLength, int number of games, int payload bytes
+ *   game: varint number of moves, then one varint per move: cell*numPlayers + player-1
+ * varints hold 7 bits per byte, least significant first, the high bit set on all but the last byte,
+ * so a move on a board of up to 128 cells (with one player) takes a single byte
+ * so only shapes whose fields fit the header and whose packed moves fit an int can be recorded
+ * every block is self-contained, so readers can split a file at block boundaries (see GameRecordReplay)
+ * moves are collected in memory per game and written block by block through a FileChannel,
+ * recording a move is a single array store on the thread making it
+ * games may be recorded from several threads at once
+ */
+public class GameRecordWriter implements Closeable {
+
+    /** "TTTR" */
+    static final int MAGIC = 0x54545452;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 20;
+
+    /** payload bytes collected before a block is written */
+    static final int BLOCK_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+    private ByteBuffer payload = ByteBuffer.allocate(BLOCK_SIZE);
+
+    // shape of the games in the current block
+    private int width;
+    private int height;
+    private int numPlayers;
+    private int runLength;
+
+    /** number of games in the current block */
+    private int blockGames;
+
+    /** number of games recorded in total */
+    private long games;
+
+    /** first write error, listeners cannot throw it so it is thrown by flush and close */
+    private IOException error;
+
+    /** constructor opening the given file, appending to it or replacing it */
+    public GameRecordWriter(File file, boolean append) throws IOException {
+        this.channel = new FileOutputStream(file, append).getChannel();
+    }
+
+    /** records the moves of the given game from now on, until it is won or drawn
+     * returns the listener doing so, it removes itself at the end of the game
+     */
+    public GameListener record(final TTTGame game) {
+        Recorder recorder = new Recorder(game);
+        game.addGameListener(recorder);
+        return recorder;
+    }
+
+    /** collects the moves of one game, packed as cell*numPlayers + player-1 */
+    private final class Recorder implements GameListener {
+        private final TTTGame game;
+        private final int width;
+        private final int height;
+        private final int numPlayers;
+        private final int runLength;
+        private final int[] moves;
+        private int count;
+
+        Recorder(TTTGame game) {
+            this.game = game;
+            this.width = game.getHorizontalSize();
+            this.height = game.getVerticalSize();
+            this.numPlayers = game.getNumPlayers();
+            this.runLength = game.getRunLength();
+            checkShape(this.width, this.height, this.numPlayers, this.runLength);
+            this.moves = new int[this.width * this.height];
+        }
+
+        @Override
+        public void moveMade(Coordinate pos, int player) {
+            this.moves[this.count++] = (pos.getY() * this.width + pos.getX()) * this.numPlayers + player - 1;
+        }
+
+        @Override
+        public void moveUndone(Coordinate pos, int player) {
+            this.count--;
+        }
+
+        @Override
+        public void gameWon(Coordinate pos, int player) {
+            this.finish();
+        }
+
+        @Override
+        public void gameDrawn(Coordinate pos) {
+            this.finish();
+        }
+
+        private void finish() {
+            GameRecordWriter.this.append(this.width, this.height, this.numPlayers, this.runLength,
+                    this.moves, this.count);
+            this.game.removeGameListener(this);
+        }
+    }
+
+    /** records a game given as packed moves (cell*numPlayers + player-1) on a board of the given shape */
+    public synchronized void append(int width, int height, int numPlayers, int runLength, int[] moves, int count) {
+        checkShape(width, height, numPlayers, runLength);
+        if (this.error != null) {
+            return;
+        }
+        try {
+            boolean sameShape = width == this.width && height == this.height
+                    && numPlayers == this.numPlayers && runLength == this.runLength;
+            int maxBytes = 5 * (count + 1);
+            if (this.blockGames > 0 && (!sameShape || this.payload.remaining() < maxBytes)) {
+                this.writeBlock();
+            }
+            if (this.payload.capacity() < maxBytes) {
+                // a single game larger than a block gets a block of its own
+                this.payload = ByteBuffer.allocate(maxBytes);
+            }
+            this.width = width;
+            this.height = height;
+            this.numPlayers = numPlayers;
+            this.runLength = runLength;
+            putVarint(this.payload, count);
+            for (int i = 0; i < count; ++i) {
+                putVarint(this.payload, moves[i]);
+            }
+            this.blockGames++;
+            this.games++;
+        } catch (IOException e) {
+            this.error = e;
+        }
+    }
+
+    /** throws IllegalArgumentException unless games on boards of the given shape can be recorded */
+    static void checkShape(int width, int height, int numPlayers, int runLength) {
+        if (width < 1 || width > 0xFFFF || height < 1 || height > 0xFFFF
+                || numPlayers < 1 || numPlayers > 0xFF || runLength < 1 || runLength > 0xFF
+                || (long) width * height * numPlayers > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cannot record games on a "+width+"x"+height+" board with "
+                    +numPlayers+" players and "+runLength+" in a row");
+        }
+    }
+
+    /** writes the current block to the file */
+    private void writeBlock() throws IOException {
+        this.payload.flip();
+        this.header.clear();
+        this.header.putInt(MAGIC);
+        this.header.putShort((short) VERSION);
+        this.header.putShort((short) this.width);
+        this.header.putShort((short) this.height);
+        this.header.put((byte) this.numPlayers);
+        this.header.put((byte) this.runLength);
+        this.header.putInt(this.blockGames);
+        this.header.putInt(this.payload.remaining());
+        this.header.flip();
+        ByteBuffer[] buffers = {this.header, this.payload};
+        while (this.payload.hasRemaining()) {
+            this.channel.write(buffers);
+        }
+        this.payload.clear();
+        this.blockGames = 0;
+    }
+
+    /** writes the games recorded so far to the file */
+    public synchronized void flush() throws IOException {
+        if (this.error == null && this.blockGames > 0) {
+            try {
+                this.writeBlock();
+            } catch (IOException e) {
+                this.error = e;
+            }
+        }
+        if (this.error != null) {
+            throw this.error;
+        }
+    }
+
+    /** writes the games recorded so far and closes the file */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            this.flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /** getter for the number of games recorded */
+    public synchronized long getGameCount() {
+        return this.games;
+    }
+
+    /** appends value as a varint */
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /** reads a varint at the buffer's position, advancing it */
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package dm550.tictactoe;
+
+import java.util.Arrays;
+
+/** histogram of durations in nanoseconds with a fixed memory footprint
+ * values below 32ns are counted exactly, larger values in log-linear buckets
+ * of 16 per power of two, so percentiles are accurate to about 6%
+ * not thread-safe, give every thread its own histogram and merge them afterwards
+ */
+public class LatencyHistogram {
+
+    /** log2 of the number of buckets per power of two */
+    private static final int SUB_BITS = 4;
+
+    private static final int SUB = 1 << SUB_BITS;
+
+    /** enough buckets for any non-negative long */
+    static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final long[] counts = new long[BUCKETS];
+
+    private long count;
+    private long total;
+    private long max;
+
+    /** records one duration, negative values are counted as 0 */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        this.counts[bucket(nanos)]++;
+        this.count++;
+        this.total += nanos;
+        if (nanos > this.max) {
+            this.max = nanos;
+        }
+    }
+
+    /** adds all values recorded by another histogram to this one */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; ++i) {
+            this.counts[i] += other.counts[i];
+        }
+        this.count += other.count;
+        this.total += other.total;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /** removes all recorded values */
+    public void clear() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.total = 0;
+        this.max = 0;
+    }
+
+    /** returns the smallest bucket bound below which the given percentage (0-100) of values lie */
+    public long getPercentile(double percent) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(this.count * percent / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += this.counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(upperBound(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /** getter for the number of recorded values */
+    public long getCount() {
+        return this.count;
+    }
+
+    /** getter for the largest recorded value */
+    public long getMax() {
+        return this.max;
+    }
+
+    /** returns the average of all recorded values */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.total / this.count;
+    }
+
+    /** adds values counted elsewhere, by bucket (see bucket), to this histogram */
+    void add(long[] bucketCounts, long total, long max) {
+        for (int i = 0; i < BUCKETS; ++i) {
+            this.counts[i] += bucketCounts[i];
+            this.count += bucketCounts[i];
+        }
+        this.total += total;
+        this.max = Math.max(this.max, max);
+    }
+
+    /** internal helper mapping a value to its bucket */
+    static int bucket(long value) {
+        if (value < 2 * SUB) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (exponent + 1) * SUB + (int) (value >>> exponent) - SUB;
+    }
+
+    /** internal helper returning the largest value that falls into a bucket */
+    private static long upperBound(int bucket) {
+        if (bucket < 2 * SUB) {
+            return bucket;
+        }
+        int exponent = bucket / SUB - 1;
+        long mantissa = bucket % SUB + SUB;
+        long bound = ((mantissa + 1) << exponent) - 1;
+        return bound < 0 ? Long.MAX_VALUE : bound;
+    }
+
+    /** formats a duration in nanoseconds for humans */
+    public static String format(long nanos) {
+        if (nanos < 10000) {
+            return nanos+"ns";
+        }
+        if (nanos < 10000000) {
+            return (nanos / 1000)+"us";
+        }
+        return (nanos / 1000000)+"ms";
+    }
+
+    public String toString() {
+        return "n="+this.count
+                +" mean="+format((long) this.getMean())
+                +" p50="+format(this.getPercentile(50))
+                +" p90="+format(this.getPercentile(90))
+                +" p99="+format(this.getPercentile(99))
+                +" p99.9="+format(this.getPercentile(99.9))
+                +" max="+format(this.max);
+    }
+}
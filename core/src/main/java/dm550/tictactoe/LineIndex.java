@@ -0,0 +1,215 @@
+package dm550.tictactoe;
+
+import java.util.Arrays;
+
+/** per-line occupancy counts of a TTTBoard, kept up to date move by move
+ * a line is any run of runLength cells a player could win with (see BoardGeometry.lineCells)
+ * every move only touches the lines through its cell, so the threat queries below
+ * do not need to look at the cells around a candidate move
+ * obtained from TTTBoard.getLineIndex, which also keeps it up to date
+ */
+public class LineIndex {
+
+    /** marker for a line holding marks of more than one player */
+    public static final int SHARED = -1;
+
+    private final BoardGeometry geometry;
+
+    private final int numPlayers;
+
+    /** the occupied cells of the board the index belongs to (its masks[0]) */
+    private final long[] occupied;
+
+    /** counts[l*(numPlayers+1)+p] is the number of marks of player p on line l,
+     * counts[l*(numPlayers+1)] the number of marks of all players on it
+     */
+    private final byte[] counts;
+
+    /** the only player with marks on a line, 0 for an empty line, SHARED if several have */
+    private final byte[] owners;
+
+    /** constructor for an index of an empty board of the given shape */
+    LineIndex(BoardGeometry geometry, int numPlayers, long[] occupied) {
+        this.geometry = geometry;
+        this.numPlayers = numPlayers;
+        this.occupied = occupied;
+        this.counts = new byte[geometry.numLines * (numPlayers + 1)];
+        this.owners = new byte[geometry.numLines];
+    }
+
+    /** constructor for creating a copy of an index for a copy of its board */
+    LineIndex(LineIndex original, long[] occupied) {
+        this.geometry = original.geometry;
+        this.numPlayers = original.numPlayers;
+        this.occupied = occupied;
+        this.counts = original.counts.clone();
+        this.owners = original.owners.clone();
+    }
+
+    /** copies the state of another index of the same shape, without allocating */
+    void copyFrom(LineIndex other) {
+        System.arraycopy(other.counts, 0, this.counts, 0, this.counts.length);
+        System.arraycopy(other.owners, 0, this.owners, 0, this.owners.length);
+    }
+
+    /** forgets all marks */
+    void clear() {
+        Arrays.fill(this.counts, (byte) 0);
+        Arrays.fill(this.owners, (byte) 0);
+    }
+
+    /** records a mark of the player on the cell */
+    void add(int cell, int player) {
+        int stride = this.numPlayers + 1;
+        int[] lines = this.geometry.cellLines;
+        for (int j = this.geometry.cellLineStart[cell]; j < this.geometry.cellLineStart[cell + 1]; ++j) {
+            int l = lines[j];
+            this.counts[l * stride]++;
+            this.counts[l * stride + player]++;
+            int owner = this.owners[l];
+            if (owner == 0) {
+                this.owners[l] = (byte) player;
+            } else if (owner != player) {
+                this.owners[l] = SHARED;
+            }
+        }
+    }
+
+    /** takes back a mark of the player on the cell */
+    void remove(int cell, int player) {
+        int stride = this.numPlayers + 1;
+        int[] lines = this.geometry.cellLines;
+        for (int j = this.geometry.cellLineStart[cell]; j < this.geometry.cellLineStart[cell + 1]; ++j) {
+            int l = lines[j];
+            int total = --this.counts[l * stride];
+            this.counts[l * stride + player]--;
+            if (total == 0) {
+                this.owners[l] = 0;
+            } else if (this.owners[l] == SHARED) {
+                // the line may belong to a single player again
+                for (int p = 1; p <= this.numPlayers; ++p) {
+                    if (this.counts[l * stride + p] == total) {
+                        this.owners[l] = (byte) p;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /** getter for the number of lines on the board */
+    public int getLineCount() {
+        return this.geometry.numLines;
+    }
+
+    /** returns the number of marks of the player on the line, player 0 for the marks of all players */
+    public int getCount(int line, int player) {
+        return this.counts[line * (this.numPlayers + 1) + player];
+    }
+
+    /** returns the only player with marks on the line, 0 if it is empty or SHARED if several players have */
+    public int getOwner(int line) {
+        return this.owners[line];
+    }
+
+    /** returns true if the player can still win with the line, i.e. nobody else has a mark on it */
+    public boolean isOpen(int line, int player) {
+        int owner = this.owners[line];
+        return owner == 0 || owner == player;
+    }
+
+    /** returns the number of lines through the cell that the player can still win with */
+    public int countOpenLines(int cell, int player) {
+        int open = 0;
+        int[] lines = this.geometry.cellLines;
+        for (int j = this.geometry.cellLineStart[cell]; j < this.geometry.cellLineStart[cell + 1]; ++j) {
+            if (this.isOpen(lines[j], player)) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    /** returns the number of lines on the board that the player can still win with */
+    public int countOpenLines(int player) {
+        int open = 0;
+        for (int l = 0; l < this.geometry.numLines; ++l) {
+            if (this.isOpen(l, player)) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    /** returns true if a mark of the player on the (free) cell completes a line */
+    public boolean isWinningMove(int cell, int player) {
+        int stride = this.numPlayers + 1;
+        int[] lines = this.geometry.cellLines;
+        for (int j = this.geometry.cellLineStart[cell]; j < this.geometry.cellLineStart[cell + 1]; ++j) {
+            int l = lines[j];
+            if (this.isOpen(l, player) && this.counts[l * stride] == this.geometry.runLength - 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** returns true if a mark of the player on the (free) cell leaves lines that each need
+     * just one more mark, on two or more different cells, so one move cannot block them all
+     */
+    public boolean isDoubleThreat(int cell, int player) {
+        int runLength = this.geometry.runLength;
+        if (runLength < 2) {
+            return false;
+        }
+        int stride = this.numPlayers + 1;
+        int[] lines = this.geometry.cellLines;
+        int[] lineCells = this.geometry.lineCells;
+        int threat = -1;
+        for (int j = this.geometry.cellLineStart[cell]; j < this.geometry.cellLineStart[cell + 1]; ++j) {
+            int l = lines[j];
+            if (!this.isOpen(l, player) || this.counts[l * stride] != runLength - 2) {
+                continue;
+            }
+            // the cell the line would still need, overlapping lines may need the same one
+            for (int k = l * runLength; k < (l + 1) * runLength; ++k) {
+                int other = lineCells[k];
+                if (other != cell && (this.occupied[other >>> 6] & (1L << other)) == 0) {
+                    if (threat >= 0 && threat != other) {
+                        return true;
+                    }
+                    threat = other;
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** returns a free cell where a mark of the player completes a line, or -1 if there is none */
+    public int findWinningMove(int player) {
+        int runLength = this.geometry.runLength;
+        int stride = this.numPlayers + 1;
+        for (int l = 0; l < this.geometry.numLines; ++l) {
+            boolean threat = runLength == 1 ? this.owners[l] == 0
+                    : this.owners[l] == player && this.counts[l * stride + player] == runLength - 1;
+            if (threat) {
+                return this.freeCellOf(l);
+            }
+        }
+        return -1;
+    }
+
+    /** returns the first free cell of the line, -1 if it is full */
+    private int freeCellOf(int line) {
+        int runLength = this.geometry.runLength;
+        int[] lineCells = this.geometry.lineCells;
+        for (int j = line * runLength; j < (line + 1) * runLength; ++j) {
+            int cell = lineCells[j];
+            if ((this.occupied[cell >>> 6] & (1L << cell)) == 0) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
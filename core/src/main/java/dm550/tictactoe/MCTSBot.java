@@ -0,0 +1,368 @@
+package dm550.tictactoe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** bot using Monte Carlo Tree Search (UCT)
+ * meant for boards where the branching factor is too high for SearchBot
+ * every worker thread grows its own tree from the current position (root parallelisation),
+ * resetting a single private board to that position before each playout
+ * afterwards the visit counts of the root moves are added up and the most visited move is played
+ * a search stops when the time budget or the playout budget runs out, whichever comes first
+ */
+public class MCTSBot implements Bot {
+
+    /** exploration constant of the UCT formula */
+    private static final double EXPLORATION = 1.4;
+
+    /** pool shared by all MCTS bots that are not given their own */
+    private static ExecutorService sharedPool;
+
+    private int ownID;
+    private int numPlayers;
+
+    /** time budget per move in nanoseconds */
+    private long budget;
+
+    /** maximum number of playouts per move, over all threads */
+    private long maxPlayouts = Long.MAX_VALUE;
+
+    /** number of trees grown in parallel */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /** whether playouts follow the TTTBot heuristic instead of playing randomly */
+    private boolean heuristicRollouts;
+
+    /** pool running the workers, null for the shared pool */
+    private ExecutorService pool;
+
+    /** number of playouts made by the last search */
+    private long playouts;
+
+    /** constructor for a bot with the given ID and time budget per move */
+    public MCTSBot(int ID, int numPlayers, long budgetMillis) {
+        this.ownID = ID;
+        this.numPlayers = numPlayers;
+        this.budget = budgetMillis * 1000000L;
+    }
+
+    /** limits the number of playouts per move, the search stops at whichever budget runs out first */
+    public void setPlayoutBudget(long maxPlayouts) {
+        if (maxPlayouts < 1) {
+            throw new IllegalArgumentException("Need at least one playout");
+        }
+        this.maxPlayouts = maxPlayouts;
+    }
+
+    /** sets the number of trees grown in parallel */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        this.threads = threads;
+    }
+
+    /** chooses between random playouts (default) and playouts following TTTBot.getScore
+     * heuristic playouts are much stronger, but also much slower
+     */
+    public void setHeuristicRollouts(boolean heuristicRollouts) {
+        this.heuristicRollouts = heuristicRollouts;
+    }
+
+    /** runs the workers on the given pool instead of the shared one */
+    public void setPool(ExecutorService pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int getID() {
+        return this.ownID;
+    }
+
+    @Override
+    public Coordinate getMove(TTTBoard board) {
+        return board.getCoordinate(this.getMoveIndex(board));
+    }
+
+    @Override
+    public int getMoveIndex(TTTBoard board) {
+        if (board.countFree() == 0) {
+            return 0;
+        }
+        final long deadline = System.nanoTime() + this.budget;
+        final TTTBoard root = new TTTBoard(board);
+        ExecutorService pool = this.getPool();
+        // a playout budget below the number of threads leaves some threads without a share, they are not started
+        int numWorkers = (int) Math.min(this.threads, this.maxPlayouts);
+        Worker[] running = new Worker[numWorkers];
+        List<Future<Worker>> results = new ArrayList<Future<Worker>>();
+        for (int t = 0; t < numWorkers; ++t) {
+            long share = this.maxPlayouts / numWorkers + (t < this.maxPlayouts % numWorkers ? 1 : 0);
+            final Worker worker = new Worker(root, deadline, share, t);
+            running[t] = worker;
+            results.add(pool.submit(new Callable<Worker>() {
+                @Override
+                public Worker call() {
+                    worker.run();
+                    return worker;
+                }
+            }));
+        }
+
+        // the results are collected one by one so an interrupt of the calling thread is noticed right away
+        int[] visits = new int[board.getCellCount()];
+        boolean[] waitFor = new boolean[numWorkers];
+        Arrays.fill(waitFor, true);
+        boolean interrupted = false;
+        this.playouts = 0;
+        for (int t = 0; t < numWorkers; ++t) {
+            while (waitFor[t]) {
+                try {
+                    Worker worker = results.get(t).get();
+                    waitFor[t] = false;
+                    this.playouts += worker.playouts;
+                    for (Node child : worker.root.children) {
+                        if (child != null) {
+                            visits[child.move] += child.visits;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // the move is not wanted any more, stop the workers and play the best move found so far
+                    // workers still waiting for a thread are claimed here so they never start
+                    interrupted = true;
+                    for (int u = 0; u < numWorkers; ++u) {
+                        running[u].stopped = true;
+                        if (running[u].claimed.compareAndSet(false, true)) {
+                            waitFor[u] = false;
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("MCTS worker failed", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        int bestMove = board.nextFree(0);
+        for (int i = board.nextFree(0); i >= 0; i = board.nextFree(i + 1)) {
+            if (visits[i] > visits[bestMove]) {
+                bestMove = i;
+            }
+        }
+        return bestMove;
+    }
+
+    /** searches the boards one after another, each with the full time budget */
+    @Override
+    public void getMoveIndices(TTTBoard[] boards, int count, int[] moves) {
+        for (int i = 0; i < count; ++i) {
+            moves[i] = this.getMoveIndex(boards[i]);
+        }
+    }
+
+    /** returns the pool to run workers on */
+    private ExecutorService getPool() {
+        if (this.pool != null) {
+            return this.pool;
+        }
+        synchronized (MCTSBot.class) {
+            if (sharedPool == null) {
+                sharedPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+            }
+            return sharedPool;
+        }
+    }
+
+    /** getter for the number of playouts made by the last search */
+    public long getPlayoutCount() {
+        return this.playouts;
+    }
+
+    /** returns the player moving after the given one */
+    private int nextPlayer(int player) {
+        return player % this.numPlayers + 1;
+    }
+
+    /** node of a search tree, reached by player making move */
+    private static final class Node {
+        final Node parent;
+        final int move;
+        final int player;
+
+        /** player that won by making the move, -1 for a draw, 0 if the game goes on */
+        final int result;
+
+        /** children expanded so far, followed by nulls */
+        Node[] children;
+        int expanded;
+
+        /** moves not expanded yet occupy untried[0] to untried[numUntried-1] */
+        int[] untried;
+        int numUntried;
+
+        int visits;
+
+        /** summed rewards of player, i.e. how good making move turned out to be */
+        double reward;
+
+        Node(Node parent, int move, int player, TTTBoard board) {
+            this.parent = parent;
+            this.move = move;
+            this.player = player;
+            int winner = move < 0 ? 0 : board.checkLastMove();
+            this.result = winner != 0 ? winner : board.checkFull() ? -1 : 0;
+            if (this.result == 0) {
+                this.untried = new int[board.countFree()];
+                for (int i = board.nextFree(0); i >= 0; i = board.nextFree(i + 1)) {
+                    this.untried[this.numUntried++] = i;
+                }
+                this.children = new Node[this.numUntried];
+            } else {
+                this.children = new Node[0];
+            }
+        }
+    }
+
+    /** grows one tree, not thread-safe, every thread has its own */
+    private final class Worker {
+        final TTTBoard position;
+        final Node root;
+        final long deadline;
+        final long maxPlayouts;
+        final Random random;
+        final TTTBot[] heuristics;
+        long playouts;
+
+        /** set when the search is abandoned */
+        volatile boolean stopped;
+
+        /** set by whoever gets to the worker first, the thread running it or the caller abandoning it */
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        Worker(TTTBoard position, long deadline, long maxPlayouts, int seed) {
+            this.position = position;
+            // the node for the root position counts as reached by the previous player
+            int previous = (ownID + numPlayers - 2) % numPlayers + 1;
+            this.root = new Node(null, -1, previous, position);
+            this.deadline = deadline;
+            this.maxPlayouts = maxPlayouts;
+            this.random = new Random(System.nanoTime() + seed);
+            this.heuristics = new TTTBot[numPlayers + 1];
+            for (int p = 1; p <= numPlayers; ++p) {
+                this.heuristics[p] = new TTTBot(p, numPlayers);
+            }
+        }
+
+        void run() {
+            if (!this.claimed.compareAndSet(false, true)) {
+                return;
+            }
+            TTTBoard board = this.position.snapshot();
+            while (this.playouts < this.maxPlayouts && System.nanoTime() - this.deadline < 0 && !this.stopped) {
+                board.restore(this.position);
+                Node node = this.select(board);
+                int result = node.result != 0 ? node.result : this.rollout(board, nextPlayer(node.player));
+                this.backpropagate(node, result);
+                this.playouts++;
+            }
+        }
+
+        /** walks down the tree along the best UCT values, expanding one new node
+         * plays the moves on board on the way
+         */
+        Node select(TTTBoard board) {
+            Node node = this.root;
+            while (node.result == 0) {
+                int player = nextPlayer(node.player);
+                if (node.numUntried > 0) {
+                    int pick = this.random.nextInt(node.numUntried);
+                    int move = node.untried[pick];
+                    node.untried[pick] = node.untried[--node.numUntried];
+                    board.addMove(move, player);
+                    Node child = new Node(node, move, player, board);
+                    node.children[node.expanded++] = child;
+                    return child;
+                }
+                Node best = null;
+                double bestValue = Double.NEGATIVE_INFINITY;
+                double logVisits = Math.log(node.visits);
+                for (int i = 0; i < node.expanded; ++i) {
+                    Node child = node.children[i];
+                    double value = child.reward / child.visits
+                            + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                    if (value > bestValue) {
+                        best = child;
+                        bestValue = value;
+                    }
+                }
+                board.addMove(best.move, player);
+                node = best;
+            }
+            return node;
+        }
+
+        /** plays the game to the end, returns the winner or -1 for a draw */
+        int rollout(TTTBoard board, int player) {
+            int size = board.getCellCount();
+            while (true) {
+                int move;
+                if (heuristicRollouts) {
+                    move = this.heuristics[player].getMoveIndex(board);
+                } else {
+                    // rejection sampling is quick while the board is not nearly full
+                    move = this.random.nextInt(size);
+                    for (int tries = 0; !board.isFree(move) && tries < 8; ++tries) {
+                        move = this.random.nextInt(size);
+                    }
+                    if (!board.isFree(move)) {
+                        int skip = this.random.nextInt(board.countFree());
+                        move = board.nextFree(0);
+                        for (int i = 0; i < skip; ++i) {
+                            move = board.nextFree(move + 1);
+                        }
+                    }
+                }
+                board.addMove(move, player);
+                int winner = board.checkLastMove();
+                if (winner != 0) {
+                    return winner;
+                }
+                if (board.checkFull()) {
+                    return -1;
+                }
+                player = nextPlayer(player);
+            }
+        }
+
+        /** adds the result to every node from the given one up to the root */
+        void backpropagate(Node node, int result) {
+            double draw = 1.0 / numPlayers;
+            for (; node != null; node = node.parent) {
+                node.visits++;
+                if (result == node.player) {
+                    node.reward += 1;
+                } else if (result == -1) {
+                    node.reward += draw;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns debug string
+     */
+    @Override
+    public String debug(TTTBoard board) {
+        return "Bot "+this.ownID+" (MCTS, "+this.playouts+" playouts)\n";
+    }
+}
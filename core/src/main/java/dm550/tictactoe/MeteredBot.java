@@ -0,0 +1,88 @@
+package dm550.tictactoe;
+
+/** decorator recording the latency, work and allocations of another bot's moves in MoveMetrics
+ * the work of a move is the number of nodes searched by a SearchBot, of playouts made by an MCTSBot
+ * and of free cells scored by any other bot
+ * allocations are those of the calling thread, bots searching on other threads allocate more
+ */
+public class MeteredBot implements Bot {
+
+    private final Bot bot;
+
+    private final MoveMetrics metrics;
+
+    /** constructor recording into the metrics "bot.<class of the bot>" */
+    public MeteredBot(Bot bot) {
+        this(bot, Metrics.get("bot."+bot.getClass().getSimpleName()));
+    }
+
+    /** constructor recording into the given metrics */
+    public MeteredBot(Bot bot, MoveMetrics metrics) {
+        this.bot = bot;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int getID() {
+        return this.bot.getID();
+    }
+
+    @Override
+    public Coordinate getMove(TTTBoard board) {
+        return board.getCoordinate(this.getMoveIndex(board));
+    }
+
+    @Override
+    public int getMoveIndex(TTTBoard board) {
+        long bytes = Metrics.getThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int move = this.bot.getMoveIndex(board);
+        long nanos = System.nanoTime() - start;
+        this.metrics.record(nanos, this.work(board), allocatedSince(bytes));
+        return move;
+    }
+
+    @Override
+    public void getMoveIndices(TTTBoard[] boards, int count, int[] moves) {
+        if (this.bot instanceof SearchBot || this.bot instanceof MCTSBot) {
+            // they search one board after another anyway, and only report the work of the last search
+            for (int i = 0; i < count; ++i) {
+                moves[i] = this.getMoveIndex(boards[i]);
+            }
+            return;
+        }
+        long bytes = Metrics.getThreadAllocatedBytes();
+        long start = System.nanoTime();
+        this.bot.getMoveIndices(boards, count, moves);
+        long nanos = System.nanoTime() - start;
+        long work = 0;
+        for (int i = 0; i < count; ++i) {
+            work += this.work(boards[i]);
+        }
+        this.metrics.record(count, nanos, work, allocatedSince(bytes));
+    }
+
+    /** internal helper returning the work of the last move on the board */
+    private long work(TTTBoard board) {
+        if (this.bot instanceof SearchBot) {
+            return ((SearchBot) this.bot).getNodeCount();
+        }
+        if (this.bot instanceof MCTSBot) {
+            return ((MCTSBot) this.bot).getPlayoutCount();
+        }
+        return board.countFree();
+    }
+
+    /** internal helper returning the bytes allocated by the thread since it had allocated the given number */
+    private static long allocatedSince(long bytes) {
+        if (bytes < 0) {
+            return 0;
+        }
+        return Math.max(Metrics.getThreadAllocatedBytes() - bytes, 0);
+    }
+
+    @Override
+    public String debug(TTTBoard board) {
+        return this.bot.debug(board);
+    }
+}
@@ -0,0 +1,101 @@
+package dm550.tictactoe;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/** registry of the MoveMetrics of a process, by name
+ * e.g. "bot.TTTBot" for the moves of all TTTBots wrapped in a MeteredBot, "game.addMove" for TTTGame.addMove
+ * allocations are only counted once an AllocationCounter is set, the JVM has one but Android does not
+ * (the server module sets it and exposes the metrics through JMX)
+ */
+public final class Metrics {
+
+    /** tells how many bytes the current thread has allocated so far */
+    public interface AllocationCounter {
+        /** returns the bytes allocated by the current thread so far, negative if unknown */
+        long getThreadAllocatedBytes();
+    }
+
+    private static final ConcurrentMap<String, MoveMetrics> registry = new ConcurrentHashMap<String, MoveMetrics>();
+
+    private static volatile AllocationCounter allocationCounter;
+
+    private Metrics() {
+    }
+
+    /** returns the metrics with the given name, creating them on first use */
+    public static MoveMetrics get(String name) {
+        MoveMetrics metrics = registry.get(name);
+        if (metrics == null) {
+            MoveMetrics created = new MoveMetrics(name);
+            metrics = registry.putIfAbsent(name, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    /** returns all metrics created so far, sorted by name */
+    public static List<MoveMetrics> getAll() {
+        List<MoveMetrics> all = new ArrayList<MoveMetrics>(registry.values());
+        Collections.sort(all, new Comparator<MoveMetrics>() {
+            @Override
+            public int compare(MoveMetrics first, MoveMetrics second) {
+                return first.getName().compareTo(second.getName());
+            }
+        });
+        return all;
+    }
+
+    /** sets how allocations are counted, null to stop counting them */
+    public static void setAllocationCounter(AllocationCounter counter) {
+        allocationCounter = counter;
+    }
+
+    /** returns the bytes allocated by the current thread so far, negative if allocations are not counted */
+    static long getThreadAllocatedBytes() {
+        AllocationCounter counter = allocationCounter;
+        return counter == null ? -1 : counter.getThreadAllocatedBytes();
+    }
+
+    /** returns one line of text per metrics */
+    public static String snapshot() {
+        StringBuilder outp = new StringBuilder();
+        for (MoveMetrics metrics : getAll()) {
+            outp.append(metrics).append("\n");
+        }
+        return outp.toString();
+    }
+
+    /** prints a snapshot to the given stream every period on a daemon thread
+     * returns the executor doing so, shut it down to stop
+     */
+    public static ScheduledExecutorService report(final PrintStream out, long period, TimeUnit unit) {
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Metrics reporter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        reporter.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                out.print(snapshot());
+                out.flush();
+            }
+        }, period, period, unit);
+        return reporter;
+    }
+}
@@ -0,0 +1,14 @@
+package dm550.tictactoe;
+
+/** receives the outcome of Game.addMoveAsync
+ * the methods are called through the game's callback executor, e.g. on the UI thread
+ */
+public interface MoveCallback {
+
+    /** the bots have made their moves, it is a human player's turn or the game is over */
+    void movesDone();
+
+    /** a bot failed to make its move */
+    void moveFailed(Exception e);
+
+}
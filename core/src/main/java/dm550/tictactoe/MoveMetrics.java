@@ -0,0 +1,117 @@
+package dm550.tictactoe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** latency histogram and work counters of moves, recorded by many threads at once
+ * every thread records into one of a few stripes, picked by its id, with atomic adds rather than locks,
+ * so threads recording at the same time rarely touch the same memory
+ * the getters add up the stripes, a move being recorded meanwhile may be counted only partly
+ * obtained from Metrics.get, see MeteredBot and TTTGame.setMetrics for the recording side
+ */
+public class MoveMetrics {
+
+    /** number of stripes, a power of two of about twice the number of processors */
+    private static final int STRIPES = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 1)) * 2;
+
+    // slots of the counters in every stripe, SLOTS longs fill two cache lines so stripes do not share one
+    private static final int MOVES = 0;
+    private static final int NANOS = 1;
+    private static final int MAX = 2;
+    private static final int WORK = 3;
+    private static final int ALLOCATED = 4;
+    private static final int SLOTS = 16;
+
+    private final String name;
+
+    /** latency buckets of every stripe, see LatencyHistogram.bucket */
+    private final AtomicLongArray[] buckets = new AtomicLongArray[STRIPES];
+
+    /** counters of every stripe */
+    private final AtomicLongArray[] counters = new AtomicLongArray[STRIPES];
+
+    /** constructor for empty metrics with the given name */
+    MoveMetrics(String name) {
+        this.name = name;
+        for (int s = 0; s < STRIPES; ++s) {
+            this.buckets[s] = new AtomicLongArray(LatencyHistogram.BUCKETS);
+            this.counters[s] = new AtomicLongArray(SLOTS);
+        }
+    }
+
+    /** records one move that took the given time, did the given amount of work
+     * (cells scored, nodes searched, ...) and allocated the given number of bytes
+     */
+    public void record(long nanos, long work, long allocatedBytes) {
+        this.record(1, nanos, work, allocatedBytes);
+    }
+
+    /** records the given number of moves made together, e.g. by Bot.getMoveIndices
+     * nanos, work and allocatedBytes are the totals of all of them
+     */
+    public void record(int moves, long nanos, long work, long allocatedBytes) {
+        if (moves <= 0) {
+            return;
+        }
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        long each = Math.max(nanos, 0) / moves;
+        this.buckets[stripe].addAndGet(LatencyHistogram.bucket(each), moves);
+        AtomicLongArray counters = this.counters[stripe];
+        counters.addAndGet(MOVES, moves);
+        counters.addAndGet(NANOS, Math.max(nanos, 0));
+        counters.addAndGet(WORK, work);
+        counters.addAndGet(ALLOCATED, allocatedBytes);
+        long max = counters.get(MAX);
+        while (each > max && !counters.compareAndSet(MAX, max, each)) {
+            max = counters.get(MAX);
+        }
+    }
+
+    /** getter for the name the metrics are registered under */
+    public String getName() {
+        return this.name;
+    }
+
+    /** returns a histogram of the latencies recorded so far, a copy that is not updated any more */
+    public LatencyHistogram getLatency() {
+        LatencyHistogram latency = new LatencyHistogram();
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        for (int s = 0; s < STRIPES; ++s) {
+            for (int i = 0; i < counts.length; ++i) {
+                counts[i] = this.buckets[s].get(i);
+            }
+            latency.add(counts, this.counters[s].get(NANOS), this.counters[s].get(MAX));
+        }
+        return latency;
+    }
+
+    /** getter for the number of moves recorded */
+    public long getMoves() {
+        return this.sum(MOVES);
+    }
+
+    /** getter for the work done by the moves recorded */
+    public long getWork() {
+        return this.sum(WORK);
+    }
+
+    /** getter for the bytes allocated by the moves recorded, 0 if allocations are not counted (see Metrics) */
+    public long getAllocatedBytes() {
+        return this.sum(ALLOCATED);
+    }
+
+    /** internal helper adding up a counter over all stripes */
+    private long sum(int slot) {
+        long sum = 0;
+        for (int s = 0; s < STRIPES; ++s) {
+            sum += this.counters[s].get(slot);
+        }
+        return sum;
+    }
+
+    public String toString() {
+        long moves = this.getMoves();
+        return this.name+": "+this.getLatency()
+                +" work/move="+(moves == 0 ? 0 : this.getWork() / moves)
+                +" bytes/move="+(moves == 0 ? 0 : this.getAllocatedBytes() / moves);
+    }
+}
@@ -0,0 +1,182 @@
+package dm550.tictactoe;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/** read-only table of the best known move for positions early in the game
+ * stored as a compact binary file that is memory-mapped, not read into the heap:
+ *   header (20 bytes): magic "TTTB", short version, short width, short height,
+ *                      short numPlayers, short runLength, short max ply, int number of entries
+ *   entries (10 bytes each, sorted by key): long position key, short move index
+ * the key of a position is its Symmetry.canonicalHash, which does not depend on move order
+ * and is shared by all rotations and reflections of it, moves are stored for the canonical orientation
+ * the max ply is the most moves made in any position of the book, lookups on boards past it are skipped
+ * one book covers one board shape, see OpeningBookBuilder for creating books
+ */
+public class OpeningBook {
+
+    /** "TTTB" */
+    static final int MAGIC = 0x54545442;
+
+    /** version 1 keyed positions by their plain hash */
+    static final int VERSION = 2;
+
+    static final int HEADER_SIZE = 20;
+
+    static final int ENTRY_SIZE = 10;
+
+    private final ByteBuffer entries;
+
+    private final int count;
+    private final int width;
+    private final int height;
+    private final int numPlayers;
+    private final int runLength;
+    private final int maxPly;
+
+    private OpeningBook(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported opening book version "+buffer.getShort(4));
+        }
+        this.width = buffer.getShort(6);
+        this.height = buffer.getShort(8);
+        this.numPlayers = buffer.getShort(10);
+        this.runLength = buffer.getShort(12);
+        this.maxPly = buffer.getShort(14) & 0xFFFF;
+        this.count = buffer.getInt(16);
+        if (buffer.remaining() < HEADER_SIZE + (long) this.count * ENTRY_SIZE) {
+            throw new IOException("Truncated opening book");
+        }
+        this.entries = buffer;
+    }
+
+    /** memory-maps the given book file */
+    public static OpeningBook open(File file) throws IOException {
+        // no java.nio.file here, the app runs on Android versions without it
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        } finally {
+            channel.close(); // the mapping stays valid after closing the channel
+        }
+    }
+
+    /** writes a book for the given board shape whose positions may be at any ply */
+    public static void write(File file, TTTBoard shape, long[] keys, int[] moves) throws IOException {
+        write(file, shape, keys, moves, Math.min(shape.getCellCount(), 0xFFFF));
+    }
+
+    /** writes a book for the given board shape, keys must not contain duplicates
+     * maxPly is the most moves made in any of the positions
+     */
+    public static void write(File file, TTTBoard shape, long[] keys, int[] moves, int maxPly) throws IOException {
+        if (maxPly < 0 || maxPly > 0xFFFF) {
+            throw new IllegalArgumentException("Invalid max ply "+maxPly);
+        }
+        int n = keys.length;
+        // sort entries by key, carrying the moves along
+        long[] sorted = new long[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; ++i) {
+            order[i] = i;
+        }
+        final long[] unsorted = keys;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(unsorted[a], unsorted[b]);
+            }
+        });
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + n * ENTRY_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) shape.getWidth());
+        buffer.putShort((short) shape.getHeight());
+        buffer.putShort((short) shape.getNumPlayers());
+        buffer.putShort((short) shape.getRunLength());
+        buffer.putShort((short) maxPly);
+        buffer.putInt(n);
+        for (int i = 0; i < n; ++i) {
+            sorted[i] = keys[order[i]];
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("Duplicate key in opening book");
+            }
+            buffer.putLong(sorted[i]);
+            buffer.putShort((short) moves[order[i]]);
+        }
+        buffer.flip();
+
+        FileChannel channel = new FileOutputStream(file).getChannel();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** returns true if the book was made for boards like the given one */
+    public boolean fits(TTTBoard board) {
+        return board.getWidth() == this.width && board.getHeight() == this.height
+                && board.getNumPlayers() == this.numPlayers
+                && board.getRunLength() == this.runLength;
+    }
+
+    /** returns the book move for the position with the given key, or -1 if it is not in the book */
+    public int lookup(long key) {
+        int low = 0;
+        int high = this.count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long found = this.entries.getLong(HEADER_SIZE + middle * ENTRY_SIZE);
+            if (found < key) {
+                low = middle + 1;
+            } else if (found > key) {
+                high = middle - 1;
+            } else {
+                return this.entries.getShort(HEADER_SIZE + middle * ENTRY_SIZE + 8) & 0xFFFF;
+            }
+        }
+        return -1;
+    }
+
+    /** returns the book move for the given board, or -1 if the position is not in the book */
+    public int lookup(TTTBoard board) {
+        // past the book there is nothing to find, spare the symmetry hashes
+        if (board.getMoveCount() > this.maxPly || !this.fits(board)) {
+            return -1;
+        }
+        int t = Symmetry.canonicalTransform(board);
+        int move = this.lookup(Symmetry.hash(board, t));
+        if (move < 0 || move >= board.getCellCount()) {
+            return -1;
+        }
+        move = Symmetry.apply(board, Symmetry.invert(t), move);
+        return board.isFree(move) ? move : -1;
+    }
+
+    /** getter for the most moves made in any position of the book */
+    public int getMaxPly() {
+        return this.maxPly;
+    }
+
+    /** getter for the number of positions in the book */
+    public int size() {
+        return this.count;
+    }
+}
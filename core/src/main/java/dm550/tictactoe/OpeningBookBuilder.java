@@ -0,0 +1,161 @@
+package dm550.tictactoe;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** mines an opening book from self-play games of TTTBots
+ * every game starts with a random number of random moves (up to the book depth),
+ * after that the bots play it out; each position within the book depth
+ * that was followed by bot play records the move made and how the game ended for the mover
+ * positions and moves are recorded in their canonical orientation (see Symmetry),
+ * so rotated and mirrored games add to the same statistics
+ * the book keeps, for every position seen often enough, the move that scored best
+ * usage: OpeningBookBuilder [output file] [games] [players] [depth] [min games]
+ */
+public class OpeningBookBuilder {
+
+    public static void main(String[] args) throws IOException {
+        File output = new File(args.length > 0 ? args[0] : "opening.book");
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 100000;
+        int numPlayers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int minGames = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(numPlayers, depth, new Random());
+        builder.play(games);
+        int size = builder.write(output, minGames);
+        System.out.println(size+" positions from "+games+" games written to "+output);
+    }
+
+    /** points for the mover: 2 for a win, 1 for a draw, 0 for a loss */
+    private static final int WIN = 2;
+    private static final int DRAW = 1;
+
+    private final int numPlayers;
+
+    /** empty board of the shape the book is built for */
+    private final TTTBoard empty;
+
+    /** number of plies covered by the book */
+    private final int depth;
+
+    private final Random random;
+
+    private final Bot[] bots;
+
+    /** statistics by position key and move: {games, points} */
+    private final Map<Long, Map<Integer, long[]>> stats = new HashMap<Long, Map<Integer, long[]>>();
+
+    // positions, moves and movers of the current game
+    private final long[] keys;
+    private final int[] moves;
+    private final int[] movers;
+
+    /** constructor for a builder for the default boards for the given number of players */
+    public OpeningBookBuilder(int numPlayers, int depth, Random random) {
+        this(new TTTBoard(numPlayers), depth, random);
+    }
+
+    /** constructor for a builder for boards of the same shape as the given empty one */
+    public OpeningBookBuilder(TTTBoard empty, int depth, Random random) {
+        this.numPlayers = empty.getNumPlayers();
+        this.empty = empty.snapshot();
+        this.depth = depth;
+        this.random = random;
+        this.bots = new Bot[this.numPlayers];
+        for (int i = 0; i < this.numPlayers; ++i) {
+            this.bots[i] = new TTTBot(i + 1, this.numPlayers);
+        }
+        this.keys = new long[depth];
+        this.moves = new int[depth];
+        this.movers = new int[depth];
+    }
+
+    /** plays the given number of self-play games, adding them to the statistics */
+    public void play(long games) {
+        TTTBoard board = this.empty.snapshot();
+        for (long g = 0; g < games; ++g) {
+            board.restore(this.empty);
+            int randomPlies = this.random.nextInt(this.depth + 1);
+            int player = 1;
+            int winner = 0;
+            while (winner == 0 && !board.checkFull()) {
+                int ply = board.getMoveCount();
+                int move = ply < randomPlies ? this.randomMove(board) : this.bots[player - 1].getMoveIndex(board);
+                if (ply < this.depth) {
+                    int t = Symmetry.canonicalTransform(board);
+                    this.keys[ply] = Symmetry.hash(board, t);
+                    this.moves[ply] = Symmetry.apply(board, t, move);
+                    this.movers[ply] = player;
+                }
+                board.addMove(move, player);
+                winner = board.checkLastMove();
+                player = player % this.numPlayers + 1;
+            }
+            // the last random move is judged by bot play too, the ones before it are not
+            int plies = Math.min(board.getMoveCount(), this.depth);
+            for (int ply = Math.max(randomPlies - 1, 0); ply < plies; ++ply) {
+                int points = winner == 0 ? DRAW : winner == this.movers[ply] ? WIN : 0;
+                this.record(this.keys[ply], this.moves[ply], points);
+            }
+        }
+    }
+
+    private int randomMove(TTTBoard board) {
+        int skip = this.random.nextInt(board.countFree());
+        int move = board.nextFree(0);
+        for (int i = 0; i < skip; ++i) {
+            move = board.nextFree(move + 1);
+        }
+        return move;
+    }
+
+    private void record(long key, int move, int points) {
+        Map<Integer, long[]> byMove = this.stats.get(key);
+        if (byMove == null) {
+            byMove = new HashMap<Integer, long[]>();
+            this.stats.put(key, byMove);
+        }
+        long[] entry = byMove.get(move);
+        if (entry == null) {
+            entry = new long[2];
+            byMove.put(move, entry);
+        }
+        entry[0]++;
+        entry[1] += points;
+    }
+
+    /** writes the book, keeping positions where some move was played in at least minGames games
+     * returns the number of positions written
+     */
+    public int write(File file, int minGames) throws IOException {
+        long[] bookKeys = new long[this.stats.size()];
+        int[] bookMoves = new int[this.stats.size()];
+        int n = 0;
+        for (Map.Entry<Long, Map<Integer, long[]>> position : this.stats.entrySet()) {
+            int best = -1;
+            double bestScore = -1;
+            for (Map.Entry<Integer, long[]> move : position.getValue().entrySet()) {
+                long[] entry = move.getValue();
+                double score = (double) entry[1] / entry[0];
+                if (entry[0] >= minGames && score > bestScore) {
+                    best = move.getKey();
+                    bestScore = score;
+                }
+            }
+            if (best >= 0) {
+                bookKeys[n] = position.getKey();
+                bookMoves[n] = best;
+                n++;
+            }
+        }
+        // positions are recorded with 0 to depth - 1 moves made
+        OpeningBook.write(file, this.empty,
+                Arrays.copyOf(bookKeys, n), Arrays.copyOf(bookMoves, n), Math.max(this.depth - 1, 0));
+        return n;
+    }
+}
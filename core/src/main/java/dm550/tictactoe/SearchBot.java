@@ -0,0 +1,396 @@
+package dm550.tictactoe;
+
+/** bot that searches the game tree with iterative deepening
+ * until its time budget per move runs out
+ * supports two ways of reducing an N-player game to something searchable:
+ * - PARANOID assumes all other players team up against the bot (alpha-beta pruning)
+ * - MAX_N assumes every player maximises their own score
+ * moves are searched in the order suggested by the TTTBot heuristic
+ * the tree is walked by making and undoing moves on a single board
+ * results are kept in a transposition table, so positions reached through
+ * different move orders or in earlier iterations are not searched again
+ */
+public class SearchBot implements Bot {
+
+    /** how the bot models its opponents */
+    public enum Mode { PARANOID, MAX_N }
+
+    /** score of a position won at the root, larger than any heuristic evaluation
+     * a win n plies from the root scores WIN - n, so quick wins and slow losses are preferred
+     */
+    private static final int WIN = 1 << 30;
+
+    /** scores beyond this are wins or losses, no win is more than MAX_CELLS plies away */
+    private static final int MATE = WIN - BoardGeometry.MAX_CELLS - 1;
+
+    /** how often (in nodes) the clock is checked */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private int ownID;
+    private int numPlayers;
+    private Mode mode;
+
+    /** time budget per move in nanoseconds */
+    private long budget;
+
+    /** heuristic bots used for move ordering, indexed by player */
+    private TTTBot[] heuristics;
+
+    /** results of earlier searches, kept between moves */
+    private TranspositionTable table;
+
+    /** deadline of the current search (System.nanoTime) */
+    private long deadline;
+
+    /** set once the current search ran out of time */
+    private boolean aborted;
+
+    /** number of nodes visited by the last search */
+    private long nodes;
+
+    /** deepest fully completed iteration of the last search */
+    private int completedDepth;
+
+    /** constructor for a bot with the given ID, search mode and time budget per move */
+    public SearchBot(int ID, int numPlayers, Mode mode, long budgetMillis) {
+        this(ID, numPlayers, mode, budgetMillis,
+                new TranspositionTable(16, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+    }
+
+    /** constructor for a bot that uses the given transposition table
+     * the table should not be shared with other bots
+     */
+    public SearchBot(int ID, int numPlayers, Mode mode, long budgetMillis, TranspositionTable table) {
+        this.ownID = ID;
+        this.numPlayers = numPlayers;
+        this.mode = mode;
+        this.budget = budgetMillis * 1000000L;
+        this.table = table;
+        this.heuristics = new TTTBot[numPlayers + 1];
+        for (int p = 1; p <= numPlayers; ++p) {
+            this.heuristics[p] = new TTTBot(p, numPlayers);
+        }
+    }
+
+    @Override
+    public int getID() {
+        return this.ownID;
+    }
+
+    @Override
+    public Coordinate getMove(TTTBoard board) {
+        return board.getCoordinate(this.getMoveIndex(board));
+    }
+
+    @Override
+    public int getMoveIndex(TTTBoard board) {
+        this.deadline = System.nanoTime() + this.budget;
+        this.aborted = false;
+        this.nodes = 0;
+        this.completedDepth = 0;
+        this.table.newSearch();
+
+        int[] moves = this.orderedMoves(board, this.ownID, -1);
+        if (moves.length == 0) {
+            return 0;
+        }
+        // moves are made and taken back on a private copy, the caller's board is left alone
+        TTTBoard position = board.snapshot();
+        int bestMove = moves[0];
+        int maxDepth = board.countFree();
+        for (int depth = 1; depth <= maxDepth; ++depth) {
+            int best = this.searchRoot(position, moves, depth);
+            if (this.aborted) {
+                break;
+            }
+            bestMove = moves[best];
+            this.completedDepth = depth;
+            // search the best move first in the next iteration
+            System.arraycopy(moves, 0, moves, 1, best);
+            moves[0] = bestMove;
+        }
+        return bestMove;
+    }
+
+    /** searches the boards one after another, each with the full time budget */
+    @Override
+    public void getMoveIndices(TTTBoard[] boards, int count, int[] moves) {
+        for (int i = 0; i < count; ++i) {
+            moves[i] = this.getMoveIndex(boards[i]);
+        }
+    }
+
+    /** searches all root moves to the given depth, returning the position of the best one in moves */
+    private int searchRoot(TTTBoard board, int[] moves, int depth) {
+        int next = this.nextPlayer(this.ownID);
+        int best = 0;
+        if (this.mode == Mode.PARANOID) {
+            int alpha = -Integer.MAX_VALUE;
+            for (int i = 0; i < moves.length; ++i) {
+                board.addMove(moves[i], this.ownID);
+                int score = this.paranoid(board, depth - 1, 1, next, alpha, Integer.MAX_VALUE);
+                board.undoMove();
+                if (this.aborted) {
+                    return best;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    best = i;
+                }
+            }
+        } else {
+            int bestScore = -Integer.MAX_VALUE;
+            for (int i = 0; i < moves.length; ++i) {
+                board.addMove(moves[i], this.ownID);
+                int[] scores = this.maxN(board, depth - 1, 1, next);
+                board.undoMove();
+                if (this.aborted) {
+                    return best;
+                }
+                if (scores[this.ownID] > bestScore) {
+                    bestScore = scores[this.ownID];
+                    best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** paranoid alpha-beta search, scores are from the point of view of this bot
+     * the board has just been played on by the player before the given player, ply moves after the root
+     */
+    private int paranoid(TTTBoard board, int depth, int ply, int player, int alpha, int beta) {
+        if (this.tick()) {
+            return 0;
+        }
+        int winner = board.checkLastMove();
+        if (winner != 0) {
+            return winner == this.ownID ? WIN - ply : -WIN + ply;
+        }
+        if (board.checkFull()) {
+            return 0;
+        }
+        long key = board.getHash();
+        long entry = this.table.probe(key);
+        int hint = -1;
+        if (entry != 0) {
+            hint = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int value = fromTable(TranspositionTable.value(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && value >= beta)
+                        || (bound == TranspositionTable.UPPER && value <= alpha)) {
+                    return value;
+                }
+            }
+        }
+        if (depth == 0) {
+            int[] potential = this.evaluate(board);
+            int score = potential[this.ownID];
+            for (int p = 1; p <= this.numPlayers; ++p) {
+                if (p != this.ownID) {
+                    score -= potential[p];
+                }
+            }
+            return score;
+        }
+
+        int[] moves = this.orderedMoves(board, player, hint);
+        int next = this.nextPlayer(player);
+        boolean maximising = player == this.ownID;
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+        int bestMove = -1;
+        for (int move : moves) {
+            board.addMove(move, player);
+            int score = this.paranoid(board, depth - 1, ply + 1, next, alpha, beta);
+            board.undoMove();
+            if (this.aborted) {
+                return 0;
+            }
+            if (maximising && score > alpha) {
+                alpha = score;
+                bestMove = move;
+            } else if (!maximising && score < beta) {
+                beta = score;
+                bestMove = move;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int value;
+        int bound;
+        if (maximising) {
+            value = alpha;
+            bound = alpha <= originalAlpha ? TranspositionTable.UPPER
+                    : alpha >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        } else {
+            value = beta;
+            bound = beta >= originalBeta ? TranspositionTable.LOWER
+                    : beta <= alpha ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+        }
+        this.table.store(key, toTable(value, ply), depth, bound, bestMove);
+        return value;
+    }
+
+    /** max-n search, returns one score per player (index 0 unused)
+     * the board has just been played on by the player before the given player, ply moves after the root
+     * a score vector does not fit the transposition table, so here it only
+     * remembers the best move of each position for move ordering
+     */
+    private int[] maxN(TTTBoard board, int depth, int ply, int player) {
+        int[] scores = new int[this.numPlayers + 1];
+        if (this.tick()) {
+            return scores;
+        }
+        int winner = board.checkLastMove();
+        if (winner != 0) {
+            for (int p = 1; p <= this.numPlayers; ++p) {
+                scores[p] = p == winner ? WIN - ply : -WIN + ply;
+            }
+            return scores;
+        }
+        if (board.checkFull()) {
+            return scores;
+        }
+        if (depth == 0) {
+            int[] potential = this.evaluate(board);
+            for (int p = 1; p <= this.numPlayers; ++p) {
+                int strongest = 0;
+                for (int q = 1; q <= this.numPlayers; ++q) {
+                    if (q != p) {
+                        strongest = Math.max(strongest, potential[q]);
+                    }
+                }
+                scores[p] = potential[p] - strongest;
+            }
+            return scores;
+        }
+
+        long key = board.getHash();
+        long entry = this.table.probe(key);
+        int[] moves = this.orderedMoves(board, player, entry != 0 ? TranspositionTable.move(entry) : -1);
+        int next = this.nextPlayer(player);
+        int[] best = null;
+        int bestMove = -1;
+        for (int move : moves) {
+            board.addMove(move, player);
+            int[] childScores = this.maxN(board, depth - 1, ply + 1, next);
+            board.undoMove();
+            if (this.aborted) {
+                return scores;
+            }
+            if (best == null || childScores[player] > best[player]) {
+                best = childScores;
+                bestMove = move;
+            }
+        }
+        this.table.store(key, toTable(best[player], ply), depth, TranspositionTable.EXACT, bestMove);
+        return best;
+    }
+
+    /** converts a score counting wins and losses from the root into one counting them from the position
+     * ply moves after the root, as the table keeps scores across searches from different roots
+     */
+    static int toTable(int score, int ply) {
+        if (score > MATE) {
+            return score + ply;
+        }
+        if (score < -MATE) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /** converts a score from the table back into one counting wins and losses from the root */
+    static int fromTable(int score, int ply) {
+        if (score > MATE) {
+            return score - ply;
+        }
+        if (score < -MATE) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /** static evaluation: for every player the sum over all lines only that player has
+     * marks on, weighted by the number of marks, so lines closer to winning count more
+     * reads the board's line index, which make/unmake keep up to date, instead of the cells
+     */
+    private int[] evaluate(TTTBoard board) {
+        LineIndex lines = board.getLineIndex();
+        int[] potential = new int[this.numPlayers + 1];
+        for (int l = 0; l < lines.getLineCount(); ++l) {
+            int owner = lines.getOwner(l);
+            if (owner > 0) {
+                potential[owner] += 1 << (3 * (lines.getCount(l, 0) - 1));
+            }
+        }
+        return potential;
+    }
+
+    /** returns all free positions, best first according to the heuristic of the given player
+     * the hint (e.g. the best move found for the position earlier) is put first, -1 for none
+     */
+    private int[] orderedMoves(TTTBoard board, int player, int hint) {
+        int[] moves = new int[board.countFree()];
+        int[] scores = new int[moves.length];
+        TTTBot heuristic = this.heuristics[player];
+        int n = 0;
+        for (int i = board.nextFree(0); i >= 0; i = board.nextFree(i + 1)) {
+            int score = heuristic.getScore(board, i);
+            // insertion sort, stable so equal scores keep board order
+            int j = n++;
+            while (j > 0 && scores[j - 1] < score) {
+                moves[j] = moves[j - 1];
+                scores[j] = scores[j - 1];
+                --j;
+            }
+            moves[j] = i;
+            scores[j] = score;
+        }
+        for (int j = 1; j < n && hint >= 0; ++j) {
+            if (moves[j] == hint) {
+                System.arraycopy(moves, 0, moves, 1, j);
+                moves[0] = hint;
+                break;
+            }
+        }
+        return moves;
+    }
+
+    /** counts a node and returns true if the search has run out of time or was interrupted */
+    private boolean tick() {
+        if (++this.nodes % CLOCK_INTERVAL == 0
+                && (System.nanoTime() - this.deadline > 0 || Thread.currentThread().isInterrupted())) {
+            this.aborted = true;
+        }
+        return this.aborted;
+    }
+
+    /** returns the player moving after the given one */
+    private int nextPlayer(int player) {
+        return player % this.numPlayers + 1;
+    }
+
+    /** getter for the number of nodes visited by the last search */
+    public long getNodeCount() {
+        return this.nodes;
+    }
+
+    /** getter for the deepest fully searched depth of the last search */
+    public int getCompletedDepth() {
+        return this.completedDepth;
+    }
+
+    /**
+     * Returns debug string
+     */
+    @Override
+    public String debug(TTTBoard board) {
+        return "Bot "+this.ownID+" ("+this.mode+", depth "+this.completedDepth+", "+this.nodes+" nodes)\n";
+    }
+}
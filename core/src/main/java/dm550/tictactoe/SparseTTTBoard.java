@@ -0,0 +1,271 @@
+package dm550.tictactoe;
+
+import java.util.Arrays;
+
+/** represents a tic tac toe board that may be far too large to store densely, or even unbounded
+ * only the chunks of CHUNK_SIZE x CHUNK_SIZE cells that have been played in are stored,
+ * so memory grows with the number of moves rather than with the area of the board
+ * offers the same getPlayer/addMove contract as TTTBoard, a width or height of
+ * Coordinate.UNBOUNDED lets the board go on forever (also into negative coordinates) in that direction
+ * lookups remember the last chunk used, so unlike TTTBoard not even reading is thread-safe
+ */
+public class SparseTTTBoard {
+
+    /** number of cells along each side of a chunk, a power of two */
+    static final int CHUNK_SIZE = 16;
+
+    private static final int CHUNK_BITS = 4;
+
+    /** occupied chunks by chunkKey, each holding the player on every cell (0 if free), row by row */
+    private final ChunkMap chunks = new ChunkMap(CHUNK_SIZE * CHUNK_SIZE);
+
+    /** horizontal size of the board or Coordinate.UNBOUNDED */
+    private final int width;
+
+    /** vertical size of the board or Coordinate.UNBOUNDED */
+    private final int height;
+
+    /** number of marks in a row needed to win */
+    private final int runLength;
+
+    /** number of players taking part */
+    private final int numPlayers;
+
+    /** x and y of the moves made so far, oldest first, used as undo stack */
+    private int[] historyX = new int[64];
+    private int[] historyY = new int[64];
+
+    /** number of moves made so far, i.e. the height of the undo stack */
+    private int moveCount;
+
+    /** Zobrist hash of the position, kept up to date by every move */
+    private long hash;
+
+    /** the chunk accessed last, most lookups hit the same one again */
+    private long lastKey;
+    private byte[] lastChunk;
+
+    /** constructor for creating an empty unbounded board where runLength marks in a row win */
+    public SparseTTTBoard(int numPlayers, int runLength) {
+        this(numPlayers, Coordinate.UNBOUNDED, Coordinate.UNBOUNDED, runLength);
+    }
+
+    /** constructor for creating an empty width x height board, either may be Coordinate.UNBOUNDED */
+    public SparseTTTBoard(int numPlayers, int width, int height, int runLength) {
+        if (numPlayers < 1 || numPlayers > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid number of players "+numPlayers);
+        }
+        if ((width < 1 && width != Coordinate.UNBOUNDED) || (height < 1 && height != Coordinate.UNBOUNDED)
+                || runLength < 1) {
+            throw new IllegalArgumentException("Invalid board shape "+width+"x"+height+", "+runLength+" in a row");
+        }
+        this.numPlayers = numPlayers;
+        this.width = width;
+        this.height = height;
+        this.runLength = runLength;
+    }
+
+    /** checks whether the board is free at the given position */
+    public boolean isFree(Coordinate c) {
+        return this.getPlayer(c.getX(), c.getY()) == 0;
+    }
+
+    /** returns the player that made a move on (x,y) or 0 if the position is free (or off the board) */
+    public int getPlayer(Coordinate c) {
+        return this.getPlayer(c.getX(), c.getY());
+    }
+
+    /** returns the player that made a move on (x,y) or 0 if the position is free (or off the board) */
+    public int getPlayer(int x, int y) {
+        byte[] chunk = this.chunk(chunkKey(x, y), false);
+        return chunk == null ? 0 : chunk[cellInChunk(x, y)];
+    }
+
+    /** record that a given player made a move at the given position
+     * checks that the given positions is on the board
+     * checks that the player number is valid
+     * checks that the position is still free
+     */
+    public void addMove(Coordinate c, int player) {
+        if (!c.checkBoundaries(this.width, this.height)) {
+            throw new IllegalArgumentException("Cannot make move outside board");
+        }
+        this.addMove(c.getX(), c.getY(), player);
+    }
+
+    /** record that a given player made a move at (x,y), same checks as addMove(Coordinate, int) */
+    public void addMove(int x, int y, int player) {
+        if (!this.isOnBoard(x, y)) {
+            throw new IllegalArgumentException("Cannot make move outside board");
+        }
+        if (player <= 0 || player > this.numPlayers) {
+            throw new IllegalArgumentException("Invalid player cannot make move");
+        }
+        byte[] chunk = this.chunk(chunkKey(x, y), true);
+        int cell = cellInChunk(x, y);
+        if (chunk[cell] != 0) {
+            throw new IllegalArgumentException("Cannot make move on occupied position");
+        }
+        chunk[cell] = (byte) player;
+        if (this.moveCount == this.historyX.length) {
+            this.historyX = Arrays.copyOf(this.historyX, 2 * this.moveCount);
+            this.historyY = Arrays.copyOf(this.historyY, 2 * this.moveCount);
+        }
+        this.historyX[this.moveCount] = x;
+        this.historyY[this.moveCount] = y;
+        this.moveCount++;
+        this.hash ^= Zobrist.key(x, y, player);
+    }
+
+    /** takes back the last move, restoring the board to the state before it
+     * returns the position that became free again
+     * the chunk it was in stays allocated, so replaying moves does not allocate again
+     */
+    public Coordinate undoMove() {
+        if (this.moveCount == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        this.moveCount--;
+        int x = this.historyX[this.moveCount];
+        int y = this.historyY[this.moveCount];
+        byte[] chunk = this.chunk(chunkKey(x, y), false);
+        int cell = cellInChunk(x, y);
+        this.hash ^= Zobrist.key(x, y, chunk[cell]);
+        chunk[cell] = 0;
+        return XYCoordinate.valueOf(x, y);
+    }
+
+    /** returns true if, and only if, the board is bounded and there are no more free positions on it */
+    public boolean checkFull() {
+        return this.width != Coordinate.UNBOUNDED && this.height != Coordinate.UNBOUNDED
+                && this.moveCount == (long) this.width * this.height;
+    }
+
+    /** returns 0 if the last move did not win
+     * otherwise returns the number of the player that made it
+     * counts the run through the last move along each axis, so the cost only depends on the run length
+     */
+    public int checkLastMove() {
+        if (this.moveCount == 0) {
+            return 0;
+        }
+        int x = this.historyX[this.moveCount - 1];
+        int y = this.historyY[this.moveCount - 1];
+        int player = this.getPlayer(x, y);
+        for (int d = 0; d < BoardGeometry.DX.length; ++d) {
+            int dx = BoardGeometry.DX[d];
+            int dy = BoardGeometry.DY[d];
+            int run = 1;
+            for (int i = 1; run < this.runLength && this.getPlayer(x + i*dx, y + i*dy) == player; ++i) {
+                ++run;
+            }
+            for (int i = 1; run < this.runLength && this.getPlayer(x - i*dx, y - i*dy) == player; ++i) {
+                ++run;
+            }
+            if (run >= this.runLength) {
+                return player;
+            }
+        }
+        return 0;
+    }
+
+    /** returns the Zobrist hash of the position
+     * equal positions have equal hashes, no matter in which order the moves were made
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    /** returns the position of the last move or null if no move was made yet */
+    public Coordinate getLastMove() {
+        if (this.moveCount == 0) {
+            return null;
+        }
+        return XYCoordinate.valueOf(this.historyX[this.moveCount - 1], this.historyY[this.moveCount - 1]);
+    }
+
+    /** getter for the number of moves made so far */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /** getter for the number of players */
+    public int getNumPlayers() {
+        return this.numPlayers;
+    }
+
+    /** getter for the horizontal size of the board or Coordinate.UNBOUNDED */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /** getter for the vertical size of the board or Coordinate.UNBOUNDED */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /** getter for the number of marks in a row needed to win */
+    public int getRunLength() {
+        return this.runLength;
+    }
+
+    /** returns the number of chunks allocated, a measure of the memory used */
+    public int getChunkCount() {
+        return this.chunks.size();
+    }
+
+    /** internal helper checking whether (x,y) is on the board */
+    private boolean isOnBoard(int x, int y) {
+        return (this.width == Coordinate.UNBOUNDED || (x >= 0 && x < this.width))
+                && (this.height == Coordinate.UNBOUNDED || (y >= 0 && y < this.height));
+    }
+
+    /** internal helper looking up a chunk, remembering the last one */
+    private byte[] chunk(long key, boolean create) {
+        if (this.lastChunk != null && this.lastKey == key) {
+            return this.lastChunk;
+        }
+        byte[] chunk = create ? this.chunks.getOrCreate(key) : this.chunks.get(key);
+        if (chunk != null) {
+            this.lastKey = key;
+            this.lastChunk = chunk;
+        }
+        return chunk;
+    }
+
+    /** key of the chunk holding (x,y), the arithmetic shift keeps negative coordinates apart */
+    private static long chunkKey(int x, int y) {
+        return ((long) (x >> CHUNK_BITS) << 32) | ((y >> CHUNK_BITS) & 0xFFFFFFFFL);
+    }
+
+    /** index of (x,y) within its chunk */
+    private static int cellInChunk(int x, int y) {
+        return ((y & (CHUNK_SIZE - 1)) << CHUNK_BITS) | (x & (CHUNK_SIZE - 1));
+    }
+
+    /** pretty printing of the part of the board that has been played in
+     * usefule for debugging purposes
+     */
+    public String toString() {
+        if (this.moveCount == 0) {
+            return "";
+        }
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < this.moveCount; ++i) {
+            minX = Math.min(minX, this.historyX[i]);
+            maxX = Math.max(maxX, this.historyX[i]);
+            minY = Math.min(minY, this.historyY[i]);
+            maxY = Math.max(maxY, this.historyY[i]);
+        }
+        StringBuilder result = new StringBuilder("("+minX+","+minY+"):\n");
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                result.append(this.getPlayer(x, y)).append(" ");
+            }
+            result.append("\n");
+        }
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,106 @@
+package dm550.tictactoe;
+
+/** maps positions to a canonical representative of their class under rotation and reflection
+ * there are COUNT transforms, numbered t = 4*m + r: mirror left to right if m is 1,
+ * then rotate clockwise by r quarter turns
+ * square boards have all 8 of them, other boards only the 4 that keep the axes (t even)
+ * the canonical form of a position is the transformed position with the smallest hash,
+ * so equivalent positions share it and a search, cache or book only needs to store one of them
+ * typical use:
+ *   int t = Symmetry.canonicalTransform(board);
+ *   long key = Symmetry.hash(board, t);                                 // same for all equivalent positions
+ *   int move = Symmetry.apply(board, Symmetry.invert(t), canonicalMove); // back to the real orientation
+ */
+public final class Symmetry {
+
+    /** number of transforms, including those that only apply to square boards */
+    public static final int COUNT = 8;
+
+    /** the transform leaving every position where it is */
+    public static final int IDENTITY = 0;
+
+    private Symmetry() {
+    }
+
+    /** returns true if the transform maps boards of the given shape onto themselves */
+    public static boolean appliesTo(TTTBoard board, int t) {
+        return board.getGeometry().symmetries[t] != null;
+    }
+
+    /** returns the transform undoing t */
+    public static int invert(int t) {
+        // mirrored transforms are reflections and undo themselves, rotations are undone by the opposite turn
+        return (t & 4) != 0 ? t : (4 - t) & 3;
+    }
+
+    /** returns the index that the cell with the given index is moved to by transform t */
+    public static int apply(TTTBoard board, int t, int index) {
+        int[] map = board.getGeometry().symmetries[t];
+        if (map == null) {
+            throw new IllegalArgumentException("Transform "+t+" does not apply to a non-square board");
+        }
+        return map[index];
+    }
+
+    /** returns the position that the given one is moved to by transform t */
+    public static Coordinate apply(TTTBoard board, int t, Coordinate c) {
+        return board.getCoordinate(apply(board, t, board.getIndex(c)));
+    }
+
+    /** returns the Zobrist hash the board would have after applying transform t
+     * hash(board, IDENTITY) is board.getHash()
+     */
+    public static long hash(TTTBoard board, int t) {
+        int[] map = board.getGeometry().symmetries[t];
+        if (map == null) {
+            throw new IllegalArgumentException("Transform "+t+" does not apply to a non-square board");
+        }
+        int cells = board.getCellCount();
+        long[] keys = Zobrist.table(cells, board.getNumPlayers());
+        long hash = 0;
+        for (int ply = 0; ply < board.getMoveCount(); ++ply) {
+            int index = board.getMoveAt(ply);
+            hash ^= keys[board.getPlayer(index) * cells + map[index]];
+        }
+        return hash;
+    }
+
+    /** returns the transform taking the board to its canonical form
+     * i.e. the one giving the smallest hash, the lowest numbered one if several do
+     */
+    public static int canonicalTransform(TTTBoard board) {
+        int best = IDENTITY;
+        long bestHash = board.getHash();
+        for (int t = 1; t < COUNT; ++t) {
+            if (!appliesTo(board, t)) {
+                continue;
+            }
+            long hash = hash(board, t);
+            if (hash < bestHash) {
+                best = t;
+                bestHash = hash;
+            }
+        }
+        return best;
+    }
+
+    /** returns the hash of the canonical form of the board, equal for all equivalent positions */
+    public static long canonicalHash(TTTBoard board) {
+        return hash(board, canonicalTransform(board));
+    }
+
+    /** returns a new board holding the position after applying transform t, with the moves in the same order */
+    public static TTTBoard transform(TTTBoard board, int t) {
+        TTTBoard result = new TTTBoard(board.getNumPlayers(), board.getWidth(), board.getHeight(), board.getRunLength());
+        for (int ply = 0; ply < board.getMoveCount(); ++ply) {
+            int index = board.getMoveAt(ply);
+            result.addMove(apply(board, t, index), board.getPlayer(index));
+        }
+        return result;
+    }
+
+    /** returns a new board holding the canonical form of the given one */
+    public static TTTBoard canonical(TTTBoard board) {
+        return transform(board, canonicalTransform(board));
+    }
+}
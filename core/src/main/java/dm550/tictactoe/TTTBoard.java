@@ -0,0 +1,469 @@
+package dm550.tictactoe;
+
+/** represents a tic tac toe board of a given width and height
+ * a player wins with runLength marks in a row (horizontally, vertically or diagonally)
+ */
+public class TTTBoard {
+
+    /** one occupancy bitmask per player
+     * cells are indexed row by row from top-left (0,0) to bottom-right (width-1, height-1),
+     * i.e. (x,y) is bit y*width+x, spread over as many longs as the board needs
+     * masks[i][w] for i > 0 holds the cells Player i made a move on
+     * masks[0][w] holds the union of all players, i.e. every occupied cell
+     */
+    private long[][] masks;
+
+    /** horizontal size of the board */
+    private int width;
+
+    /** vertical size of the board */
+    private int height;
+
+    /** number of players taking part */
+    private int numPlayers;
+
+    /** precomputed tables shared by all boards of this shape */
+    private BoardGeometry geometry;
+
+    /** scratch mask used by the win check, kept to avoid allocating */
+    private long[] scratch;
+
+    /** bit indices of the moves made so far, oldest first, used as undo stack */
+    private int[] history;
+
+    /** number of moves made so far, i.e. the height of the undo stack */
+    private int moveCount;
+
+    /** number of free positions left, kept up to date by every move */
+    private int freeCells;
+
+    /** Zobrist keys for this board, see Zobrist.table */
+    private long[] keys;
+
+    /** Zobrist hash of the position, kept up to date by every move */
+    private long hash;
+
+    /** per-line counts, only created when asked for (see getLineIndex), then kept up to date by every move */
+    private LineIndex lineIndex;
+
+    /** constructor for creating a copy of the board
+     * not needed in Part 1 - can be viewed as an example
+     */
+    public TTTBoard(TTTBoard original) {
+        this.width = original.width;
+        this.height = original.height;
+        this.numPlayers = original.numPlayers;
+        this.geometry = original.geometry;
+        this.masks = new long[original.masks.length][];
+        for (int i = 0; i < this.masks.length; i++) {
+            this.masks[i] = original.masks[i].clone();
+        }
+        this.scratch = new long[this.geometry.words];
+        this.history = original.history.clone();
+        this.moveCount = original.moveCount;
+        this.freeCells = original.freeCells;
+        this.keys = original.keys;
+        this.hash = original.hash;
+        if (original.lineIndex != null) {
+            this.lineIndex = new LineIndex(original.lineIndex, this.masks[0]);
+        }
+    }
+
+    /** constructor for creating an empty board for a given number of players
+     * the board is (numPlayers+1)x(numPlayers+1) and three in a row win
+     */
+    public TTTBoard(int numPlayers) {
+        this(numPlayers, numPlayers+1, numPlayers+1, 3);
+    }
+
+    /** constructor for creating an empty width x height board for a given number of players
+     * where runLength marks in a row win, e.g. TTTBoard(2, 15, 15, 5) for five in a row
+     * width, height and runLength must be below 2^21 and the board must not have more than 2^24 cells,
+     * a run longer than the board just cannot be won
+     */
+    public TTTBoard(int numPlayers, int width, int height, int runLength) {
+        if (numPlayers < 1) {
+            throw new IllegalArgumentException("At least one player must play");
+        }
+        if (width < 1 || width > BoardGeometry.MAX_SIDE || height < 1 || height > BoardGeometry.MAX_SIDE
+                || runLength < 1 || runLength > BoardGeometry.MAX_SIDE) {
+            throw new IllegalArgumentException("Invalid board shape "+width+"x"+height+", "+runLength+" in a row");
+        }
+        if ((long) width * height > BoardGeometry.MAX_CELLS) {
+            throw new IllegalArgumentException("Board "+width+"x"+height+" has more than "+BoardGeometry.MAX_CELLS+" cells");
+        }
+        this.width = width;
+        this.height = height;
+        this.numPlayers = numPlayers;
+        this.geometry = BoardGeometry.get(width, height, runLength);
+        this.masks = new long[numPlayers+1][this.geometry.words];
+        this.scratch = new long[this.geometry.words];
+        this.history = new int[this.geometry.cells];
+        this.freeCells = this.geometry.cells;
+        this.keys = Zobrist.table(this.geometry.cells, numPlayers);
+    }
+
+    /** checks whether the board is free at the given position */
+    public boolean isFree(Coordinate c) {
+        return this.isFree(this.getIndex(c));
+    }
+
+    /** checks whether the board is free at the position with the given index */
+    public boolean isFree(int index) {
+        return !testBit(this.masks[0], index);
+    }
+
+    /** returns the players that made a move on (x,y) or 0 if the positon is free */
+    public int getPlayer(Coordinate c) {
+        return this.getPlayer(this.getIndex(c));
+    }
+
+    /** returns the player that made a move on the position with the given index or 0 if it is free */
+    public int getPlayer(int i) {
+        if (!testBit(this.masks[0], i)) {
+            return 0;
+        }
+        for (int player = 1; player <= this.numPlayers; ++player) {
+            if (testBit(this.masks[player], i)) {
+                return player;
+            }
+        }
+        return 0;
+    }
+
+    /** record that a given player made a move at the given position
+     * checks that the given positions is on the board
+     * checks that the player number is valid
+     * checks that the position is still free
+     */
+    public void addMove(Coordinate c, int player) {
+        if (!c.checkBoundaries(this.width, this.height)) {
+            throw new IllegalArgumentException("Cannot make move outside board");
+        }
+        this.addMove(this.getIndex(c), player);
+    }
+
+    /** record that a given player made a move at the position with the given index
+     * same checks as addMove(Coordinate, int), but without needing a Coordinate
+     */
+    public void addMove(int i, int player) {
+        if (i < 0 || i >= this.geometry.cells) {
+            throw new IllegalArgumentException("Cannot make move outside board");
+        }
+        if (player <= 0 || player > this.numPlayers) {
+            throw new IllegalArgumentException("Invalid player cannot make move");
+        }
+        if (testBit(this.masks[0], i)) {
+            throw new IllegalArgumentException("Cannot make move on occupied position");
+        }
+        this.masks[0][i >>> 6] |= 1L << i;
+        this.masks[player][i >>> 6] |= 1L << i;
+        this.history[this.moveCount++] = i;
+        this.freeCells--;
+        this.hash ^= this.keys[player * this.geometry.cells + i];
+        if (this.lineIndex != null) {
+            this.lineIndex.add(i, player);
+        }
+    }
+
+    /** takes back the last move, restoring the board to the state before it
+     * returns the index of the position that became free again
+     */
+    public int undoMove() {
+        if (this.moveCount == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        int i = this.history[--this.moveCount];
+        int player = this.getPlayer(i);
+        this.masks[0][i >>> 6] &= ~(1L << i);
+        this.masks[player][i >>> 6] &= ~(1L << i);
+        this.freeCells++;
+        this.hash ^= this.keys[player * this.geometry.cells + i];
+        if (this.lineIndex != null) {
+            this.lineIndex.remove(i, player);
+        }
+        return i;
+    }
+
+    /** returns a copy of the board that can later be passed to restore */
+    public TTTBoard snapshot() {
+        return new TTTBoard(this);
+    }
+
+    /** resets the board to the state of the given snapshot (or any other board of the same shape)
+     * copies into the existing arrays, so it does not allocate
+     */
+    public void restore(TTTBoard snapshot) {
+        if (snapshot.geometry != this.geometry || snapshot.numPlayers != this.numPlayers) {
+            throw new IllegalArgumentException("Cannot restore from a board of a different shape");
+        }
+        for (int i = 0; i < this.masks.length; i++) {
+            System.arraycopy(snapshot.masks[i], 0, this.masks[i], 0, this.masks[i].length);
+        }
+        System.arraycopy(snapshot.history, 0, this.history, 0, snapshot.moveCount);
+        this.moveCount = snapshot.moveCount;
+        this.freeCells = snapshot.freeCells;
+        this.hash = snapshot.hash;
+        if (this.lineIndex != null) {
+            if (snapshot.lineIndex != null) {
+                this.lineIndex.copyFrom(snapshot.lineIndex);
+            } else {
+                this.rebuildLineIndex();
+            }
+        }
+    }
+
+    /** returns the per-line counts of the board, for answering threat queries without scanning
+     * created on the first call, from then on every move (and undo) updates it
+     * in O(number of lines through the cell), so boards not asking for it do not pay for it
+     */
+    public LineIndex getLineIndex() {
+        if (this.lineIndex == null) {
+            if (this.geometry.runLength > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Runs longer than "+Byte.MAX_VALUE+" cannot be indexed");
+            }
+            // owners and counts are bytes, the counts of a line one per player and one for all of them
+            if (this.numPlayers > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Boards for more than "+Byte.MAX_VALUE+" players cannot be indexed");
+            }
+            if ((long) this.geometry.numLines * (this.numPlayers + 1) > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Board too large to be indexed");
+            }
+            this.lineIndex = new LineIndex(this.geometry, this.numPlayers, this.masks[0]);
+            this.rebuildLineIndex();
+        }
+        return this.lineIndex;
+    }
+
+    /** internal helper filling the line index from the moves on the board */
+    private void rebuildLineIndex() {
+        this.lineIndex.clear();
+        for (int ply = 0; ply < this.moveCount; ++ply) {
+            int i = this.history[ply];
+            this.lineIndex.add(i, this.getPlayer(i));
+        }
+    }
+
+    /** returns true if, and only if, there are no more free positions on the board */
+    public boolean checkFull() {
+        return this.freeCells == 0;
+    }
+
+    /** returns the number of free positions on the board, i.e. the number of moves remaining */
+    public int countFree() {
+        return this.freeCells;
+    }
+
+    /** returns the index of the first free position at or after the given index
+     * or -1 if there is none, useful for walking all legal moves:
+     * for (int i = board.nextFree(0); i >= 0; i = board.nextFree(i+1)) { ... }
+     */
+    public int nextFree(int index) {
+        long[] occupied = this.masks[0];
+        long[] full = this.geometry.fullMask;
+        if (index >= this.geometry.cells) {
+            return -1;
+        }
+        int w = index >>> 6;
+        long free = full[w] & ~occupied[w] & (-1L << index);
+        while (free == 0) {
+            if (++w == occupied.length) {
+                return -1;
+            }
+            free = full[w] & ~occupied[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(free);
+    }
+
+    /** returns 0 if no player has won (yet)
+     * otherwise returns the number of the player that has runLength in a row
+     */
+    public int checkWinning() {
+        for (int player = 1; player <= this.numPlayers; ++player) {
+            for (int d = 0; d < this.geometry.step.length; ++d) {
+                if (this.hasRun(this.masks[player], d)) {
+                    return player;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /** returns 0 if the last move did not win
+     * otherwise returns the number of the player that made it
+     * only the lines through the last move are walked, so unlike checkWinning
+     * the cost does not depend on the size of the board
+     */
+    public int checkLastMove() {
+        if (this.moveCount == 0) {
+            return 0;
+        }
+        return this.checkWinningAt(this.history[this.moveCount - 1]);
+    }
+
+    /** returns the player occupying the given cell if it is part of a winning run, otherwise 0 */
+    int checkWinningAt(int index) {
+        int player = this.getPlayer(index);
+        if (player == 0) {
+            return 0;
+        }
+        long[] mask = this.masks[player];
+        int x = index % this.width;
+        int y = index / this.width;
+        for (int d = 0; d < BoardGeometry.DX.length; ++d) {
+            int dx = BoardGeometry.DX[d];
+            int dy = BoardGeometry.DY[d];
+            int run = 1;
+            for (int i = 1; run < this.geometry.runLength; ++i) {
+                int cx = x + i*dx;
+                int cy = y + i*dy;
+                if (cx < 0 || cx >= this.width || cy >= this.height || !testBit(mask, cy*this.width + cx)) {
+                    break;
+                }
+                ++run;
+            }
+            for (int i = 1; run < this.geometry.runLength; ++i) {
+                int cx = x - i*dx;
+                int cy = y - i*dy;
+                if (cx < 0 || cx >= this.width || cy < 0 || !testBit(mask, cy*this.width + cx)) {
+                    break;
+                }
+                ++run;
+            }
+            if (run >= this.geometry.runLength) {
+                return player;
+            }
+        }
+        return 0;
+    }
+
+    /** internal helper function checking whether mask contains a full run in direction d
+     * a run starts at cell i if i, i+step, i+2*step, ... are all in the mask
+     * runs are doubled in length by and-ing them with themselves shifted by their length,
+     * so a run of k cells takes about log2(k) shifts instead of k-1
+     */
+    private boolean hasRun(long[] mask, int d) {
+        int step = this.geometry.step[d];
+        int runLength = this.geometry.runLength;
+        long[] run = this.scratch;
+        long any = 0;
+        for (int w = 0; w < run.length; ++w) {
+            run[w] = mask[w];
+            any |= run[w];
+        }
+        // bit i of run is set if the length cells from i on are all in the mask (ignoring edges for now)
+        int length = 1;
+        while (length < runLength && any != 0) {
+            int grow = Math.min(length, runLength - length);
+            any = 0;
+            for (int w = 0; w < run.length; ++w) {
+                // reads words w and above only, so run can be updated in place
+                run[w] &= BoardGeometry.shiftedWord(run, w, grow*step);
+                any |= run[w];
+            }
+            length += grow;
+        }
+        // runStart drops the runs that wrap around an edge
+        long[] start = this.geometry.runStart[d];
+        any = 0;
+        for (int w = 0; w < run.length; ++w) {
+            any |= run[w] & start[w];
+        }
+        return any != 0;
+    }
+
+    /** returns the Zobrist hash of the position
+     * equal positions have equal hashes, no matter in which order the moves were made
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    /** getter for the horizontal size of the board */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /** getter for the vertical size of the board */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /** getter for the number of marks in a row needed to win */
+    public int getRunLength() {
+        return this.geometry.runLength;
+    }
+
+    /** getter for the number of positions on the board, indices run from 0 to getCellCount()-1 */
+    public int getCellCount() {
+        return this.geometry.cells;
+    }
+
+    /** returns the position of the last move or null if no move was made yet */
+    public Coordinate getLastMove() {
+        if (this.moveCount == 0) {
+            return null;
+        }
+        return this.getCoordinate(this.history[this.moveCount - 1]);
+    }
+
+    /** returns the index of the move made at the given ply, 0 being the first move of the game */
+    public int getMoveAt(int ply) {
+        if (ply < 0 || ply >= this.moveCount) {
+            throw new IndexOutOfBoundsException("No move at ply "+ply);
+        }
+        return this.history[ply];
+    }
+
+    /** getter for the number of moves made so far */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /** getter for the number of players */
+    public int getNumPlayers() {
+        return this.numPlayers;
+    }
+
+    /** getter for the shared tables describing the shape of the board */
+    BoardGeometry getGeometry() {
+        return this.geometry;
+    }
+
+    /** returns the (cached) coordinate of the position with the given index */
+    public Coordinate getCoordinate(int index) {
+        return this.geometry.coordinates[index];
+    }
+
+    /** converts a position to its index, i.e. y*width+x
+     * the index identifies positions in the allocation-free int based methods
+     */
+    public int getIndex(Coordinate c) {
+        int x = c.getX();
+        int y = c.getY();
+        if (x < 0 || x >= this.width || y < 0 || y >= this.height) {
+            throw new IllegalArgumentException("Position outside board");
+        }
+        return y * this.width + x;
+    }
+
+    /** internal helper checking a single bit of a mask */
+    private static boolean testBit(long[] mask, int i) {
+        return (mask[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /** pretty printing of the board
+     * usefule for debugging purposes
+     */
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int y = 0; y < this.height; y++) {
+            for (int x = 0; x < this.width; x++) {
+                result.append(this.getPlayer(y * this.width + x)).append(" ");
+            }
+            result.append("\n");
+        }
+        return result.toString();
+    }
+
+}
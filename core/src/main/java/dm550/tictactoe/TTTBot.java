@@ -0,0 +1,401 @@
+package dm550.tictactoe;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class TTTBot implements Bot {
+    /** number of cells a single task scores before splitting any further */
+    private static final int SPLIT_THRESHOLD = 8;
+
+    private int ownID;
+    private int numPlayers;
+
+    /** pool for scoring candidates in parallel, null to score them one after another */
+    private ForkJoinPool pool;
+
+    /** score of a neighbour pair by the players on its two cells, pairScores[p1*(numPlayers+1)+p2]
+     * the same as getScore adds up pair by pair, so a batch can look it up instead of branching
+     * null if there are too many players for a batch to store them in bytes
+     */
+    private final int[] pairScores;
+
+    public TTTBot(int ID, int numPlayers) {
+        this.ownID = ID;
+        this.numPlayers = numPlayers;
+        this.pairScores = numPlayers <= Byte.MAX_VALUE ? this.tabulatePairScores() : null;
+    }
+
+    /** internal helper computing pairScores */
+    private int[] tabulatePairScores() {
+        int stride = this.numPlayers + 1;
+        int[] scores = new int[stride * stride];
+        for (int p1 = 0; p1 <= this.numPlayers; ++p1) {
+            for (int p2 = 0; p2 <= this.numPlayers; ++p2) {
+                int p = -Integer.MIN_VALUE;
+                if (p1 == 0) {
+                    p = -p2;
+                } else if (p2 == 0) {
+                    p = -p1;
+                } else if (p1 == p2) {
+                    p = p1;
+                }
+                int score = 0;
+                if (p == 0 || p == this.ownID || p == -this.ownID) {
+                    ++score;
+                }
+                if (p == this.ownID) {
+                    score += 3141592;
+                } else if (p > 0) {
+                    score += 100 - ((p - this.ownID - 1 + this.numPlayers) % this.numPlayers) * 10;
+                }
+                scores[p1 * stride + p2] = score;
+            }
+        }
+        return scores;
+    }
+
+    /** scores the candidate cells in parallel on the given pool (null to switch back)
+     * the chosen move is the same as when scoring sequentially
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int getID() {
+        return this.ownID;
+    }
+
+    @Override
+    public Coordinate getMove(TTTBoard board) {
+        return board.getCoordinate(this.getMoveIndex(board));
+    }
+
+    @Override
+    public int getMoveIndex(TTTBoard board) {
+        int cells = board.getCellCount();
+        long best;
+        if (this.pool == null || cells <= SPLIT_THRESHOLD) {
+            best = this.scoreRange(board, 0, cells);
+        } else {
+            best = this.pool.invoke(new ScoreTask(board, 0, cells));
+        }
+        // no free cell at all, any answer is as good as any other
+        return Math.max((int) best, 0);
+    }
+
+    /** scores the boards together, boards of the same shape in one structure-of-arrays pass (see scoreBatch)
+     * boards with a different number of players than the bot's are scored one by one
+     */
+    @Override
+    public void getMoveIndices(TTTBoard[] boards, int count, int[] moves) {
+        int[] group = new int[count];
+        boolean[] done = new boolean[count];
+        for (int i = 0; i < count; ++i) {
+            if (done[i]) {
+                continue;
+            }
+            if (this.pairScores == null || boards[i].getNumPlayers() != this.numPlayers) {
+                moves[i] = this.getMoveIndex(boards[i]);
+                continue;
+            }
+            BoardGeometry geometry = boards[i].getGeometry();
+            int size = 0;
+            for (int j = i; j < count; ++j) {
+                if (!done[j] && boards[j].getGeometry() == geometry && boards[j].getNumPlayers() == this.numPlayers) {
+                    group[size++] = j;
+                    done[j] = true;
+                }
+            }
+            this.scoreBatch(boards, group, size, moves);
+        }
+    }
+
+    /**
+     * Picks the moves on boards of the same shape, like scoreRange does for one board
+     * The players on the boards are laid out cell by cell, the boards of each cell next to each other,
+     * so scoring one candidate cell on all boards runs through adjacent memory in short loops without branches
+     * Only the rare overlap check of a forced location goes back to the board
+     */
+    private void scoreBatch(TTTBoard[] boards, int[] group, int size, int[] moves) {
+        BoardGeometry geometry = boards[group[0]].getGeometry();
+        int width = geometry.width;
+        int height = geometry.height;
+        int cells = geometry.cells;
+        int[] pairs = geometry.neighbourPairs;
+        int stride = this.numPlayers + 1;
+        byte[] players = new byte[cells * size];
+        for (int b = 0; b < size; ++b) {
+            TTTBoard board = boards[group[b]];
+            for (int ply = 0; ply < board.getMoveCount(); ++ply) {
+                int index = board.getMoveAt(ply);
+                players[index * size + b] = (byte) board.getPlayer(index);
+            }
+        }
+
+        int[] scores = new int[size];
+        int[] forced = new int[size];
+        int[] bestScores = new int[size];
+        int[] bestMoves = new int[size];
+        Arrays.fill(bestScores, Integer.MIN_VALUE);
+        Arrays.fill(bestMoves, -1);
+        for (int i = 0; i < cells; ++i) {
+            int cell = (i % height) * width + i / height;
+            Arrays.fill(scores, 0);
+            Arrays.fill(forced, -1);
+            for (int k = cell * 24; k < (cell + 1) * 24; k += 2) {
+                int c1 = pairs[k];
+                if (c1 < 0) {
+                    continue;
+                }
+                int c2 = pairs[k + 1];
+                int o1 = c1 * size;
+                int o2 = c2 * size;
+                for (int b = 0; b < size; ++b) {
+                    scores[b] += this.pairScores[players[o1 + b] * stride + players[o2 + b]];
+                }
+                // location we are forcing an enemy to play on, first one counts
+                for (int b = 0; b < size; ++b) {
+                    if (forced[b] < 0) {
+                        int p1 = players[o1 + b];
+                        int p2 = players[o2 + b];
+                        if (p1 == this.ownID && p2 == 0) {
+                            forced[b] = c2;
+                        } else if (p1 == 0 && p2 == this.ownID) {
+                            forced[b] = c1;
+                        }
+                    }
+                }
+            }
+            int o = cell * size;
+            for (int b = 0; b < size; ++b) {
+                if (players[o + b] != 0) {
+                    continue;
+                }
+                int score = scores[b];
+                if (forced[b] >= 0 && this.isOverlapped(boards[group[b]], pairs, forced[b])) {
+                    score -= 20;
+                }
+                if (score > bestScores[b]) {
+                    bestScores[b] = score;
+                    bestMoves[b] = cell;
+                }
+            }
+        }
+        for (int b = 0; b < size; ++b) {
+            // no free cell at all, any answer is as good as any other
+            moves[group[b]] = Math.max(bestMoves[b], 0);
+        }
+    }
+
+    /**
+     * Scores the free cells in a range of the scan order (column by column, top to bottom)
+     * @returns the best score in the upper and its cell's index in the lower 32 bits,
+     * the first cell in scan order wins ties, index -1 if there is no free cell in the range
+     */
+    private long scoreRange(TTTBoard board, int from, int to) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        int bestMove = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = from; i < to; ++i) {
+            int index = (i % height) * width + i / height;
+            if (board.getPlayer(index) != 0) { continue; }
+
+            int score = this.getScore(board, index);
+            if (score > bestScore) {
+                bestMove = index;
+                bestScore = score;
+            }
+        }
+
+        return ((long) bestScore << 32) | (bestMove & 0xFFFFFFFFL);
+    }
+
+    /** combines the results of two adjacent ranges, keeping the earlier one on ties */
+    private static long better(long first, long second) {
+        return (int) (second >> 32) > (int) (first >> 32) ? second : first;
+    }
+
+    /**
+     * Scores a range of the scan order by splitting it in halves
+     * getScore only reads the board, so the halves can run at the same time
+     */
+    @SuppressWarnings("serial")
+    private final class ScoreTask extends RecursiveTask<Long> {
+        private final TTTBoard board;
+        private final int from;
+        private final int to;
+
+        ScoreTask(TTTBoard board, int from, int to) {
+            this.board = board;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (this.to - this.from <= SPLIT_THRESHOLD) {
+                return TTTBot.this.scoreRange(this.board, this.from, this.to);
+            }
+            int middle = (this.from + this.to) >>> 1;
+            ScoreTask second = new ScoreTask(this.board, middle, this.to);
+            second.fork();
+            long first = new ScoreTask(this.board, this.from, middle).compute();
+            return better(first, second.join());
+        }
+    }
+
+    /**
+     * Gets the predicted move score for a cell on board
+     */
+    int getScore(TTTBoard board, Coordinate cell) {
+        return this.getScore(board, board.getIndex(cell));
+    }
+
+    /**
+     * Gets the predicted move score for the cell with the given index
+     * Runs from the neighbour pair table of the board's geometry, so it does not allocate
+     * and only reads the board (safe to call from several threads at once)
+     */
+    int getScore(TTTBoard board, int cell) {
+        /**
+         * Cells are valued as such:
+         * - For each possible attack line +1 (max 8)
+         * - Blocks win +100
+         *     But -10 for number of players between us and blocked
+         * - Forcing onto an overlap -20
+         * - Is win +3141592
+         * This scoring system is meant for 2-player TTT
+         */
+        if (board.getPlayer(cell) != 0) {
+            return -Integer.MIN_VALUE;
+        }
+
+        int[] pairs = board.getGeometry().neighbourPairs;
+        int score = 0;
+        int forcedLocation = -1;
+        for (int k = cell * 24; k < (cell + 1) * 24; k += 2) {
+            int c1 = pairs[k];
+            if (c1 < 0) {
+                continue; // pair leaves the board, neither attack line nor block
+            }
+            int p1 = board.getPlayer(c1);
+            int p2 = board.getPlayer(pairs[k + 1]);
+
+            // Int is 0 if both are empty, -[playerID] if a player owns 1 and the other is empty,
+            // [playerID] if a player owns both and MIN_VALUE if they are owned by different players
+            int p = -Integer.MIN_VALUE;
+            if (p1 == 0) {
+                p = -p2;
+            } else if (p2 == 0) {
+                p = -p1;
+            } else if (p1 == p2) {
+                p = p1;
+            }
+
+            // attack lines
+            if (p == 0 || p == this.ownID || p == -this.ownID) {
+                ++score;
+            }
+
+            // win/blocks win
+            if (p == this.ownID) {
+                // is win
+                score += 3141592;
+            } else if (p > 0) {
+                // blocks win
+                score += 100;
+
+                // discount block by how many players are between us
+                score -= ((p - this.ownID - 1 + this.numPlayers) % this.numPlayers) * 10;
+            }
+
+            // location we are forcing an enemy to play on (otherwise we win), first one counts
+            if (forcedLocation < 0) {
+                if (p1 == this.ownID && p2 == 0) {
+                    forcedLocation = pairs[k + 1];
+                } else if (p1 == 0 && p2 == this.ownID) {
+                    forcedLocation = c1;
+                }
+            }
+        }
+
+        // avoid forcing onto overlap
+        if (forcedLocation >= 0 && this.isOverlapped(board, pairs, forcedLocation)) {
+            score -= 20;
+        }
+
+        return score;
+    }
+
+    /**
+     * Checks if a field is covered by multiple attack lines by a single enemy
+     */
+    private boolean isOverlapped(TTTBoard board, int[] pairs, int cell) {
+        long seen = 0; // bit p is set once an attack line of player p < 64 was found
+        for (int k = cell * 24; k < (cell + 1) * 24; k += 2) {
+            int player = this.attackLineOwner(board, pairs, k);
+            if (player == 0) {
+                continue;
+            }
+            if (player < 64) {
+                if ((seen & (1L << player)) != 0) {
+                    return true;
+                }
+                seen |= 1L << player;
+            } else {
+                for (int j = cell * 24; j < k; j += 2) {
+                    if (this.attackLineOwner(board, pairs, j) == player) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the player owning the attack line through neighbour pair k, 0 if there is none
+     */
+    private int attackLineOwner(TTTBoard board, int[] pairs, int k) {
+        if (pairs[k] < 0) {
+            return 0;
+        }
+        int p1 = board.getPlayer(pairs[k]);
+        int p2 = board.getPlayer(pairs[k + 1]);
+        if (p1 != 0 && p2 == 0) {
+            return p1;
+        } else if (p1 == 0 && p2 != 0) {
+            return p2;
+        } else if (p1 == p2) {
+            return p1;
+        }
+        return 0;
+    }
+
+
+    /**
+     * Returns debug string
+     */
+    @Override
+    public String debug(TTTBoard board) {
+        int width = board.getWidth();
+        StringBuilder outp = new StringBuilder("Bot "+this.ownID+"\n");
+        for (int y = 0; y < board.getHeight(); ++y) {
+            for (int x = 0; x < width; ++x) {
+                int index = y * width + x;
+                int player = board.getPlayer(index);
+                if (player == 0) {
+                    outp.append("[" + this.getScore(board, index) + "]");
+                } else {
+                    outp.append(" "+player+" ");
+                }
+            }
+            outp.append("\n");
+        }
+        outp.append("\n");
+        return outp.toString();
+    }
+}
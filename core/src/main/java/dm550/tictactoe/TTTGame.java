@@ -0,0 +1,587 @@
+package dm550.tictactoe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+/** main class creating a board and the GUI
+ * defines the game play
+ * the bots can move in the background (see addMoveAsync), so access to the game is synchronized
+ */
+public class TTTGame implements Game {
+
+    /** currently active player */
+    private int currentPlayer;
+
+    /** total number of players */
+    private int numPlayers;
+
+    private int numBots;
+    
+    /** the board we play on */
+    private TTTBoard board;
+    
+    /** the gui for board games */
+    private UserInterface ui;
+
+    /** the bots that are playing, they take the seats after the human players */
+    private Bot[] bots;
+
+    /** whether bots print their debug output before moving in playBots, turns in the background never print */
+    private boolean debug = true;
+
+    /** the player that won the game or 0 if nobody has won (yet) */
+    private int winner;
+
+    /** runs the bots' turns in the background for all games that do not set their own executor */
+    private static Executor defaultBotExecutor;
+
+    /** runs the bots' turns in the background, null for the default one */
+    private Executor botExecutor;
+
+    /** delivers the callbacks of asynchronous moves and the listeners' events, null to call them directly */
+    private Executor callbackExecutor;
+
+    /** the bots' turn running in the background, if any */
+    private BotTurn pending;
+
+    /** observers of moves and results, replaced as a whole when one is added or removed
+     * so events can be delivered without locking or allocating
+     */
+    private volatile GameListener[] listeners = new GameListener[0];
+
+    /** kinds of events for the listeners */
+    private static final int MOVE_MADE = 0;
+    private static final int MOVE_UNDONE = 1;
+    private static final int GAME_WON = 2;
+    private static final int GAME_DRAWN = 3;
+
+    /** where addMove records its latency, null for nowhere */
+    private MoveMetrics metrics;
+
+    /** copy of the board the bots search on in the background, so the board stays readable meanwhile */
+    private TTTBoard searchBoard;
+
+    /** set while a bots' turn runs in the background, even after it was cancelled
+     * a cancelled turn only stops at its next check, until then the bots and the search board are still in use
+     */
+    private boolean botsRunning;
+    
+    /** constructor that gets the number of players */
+    public TTTGame(int numPlayers) {
+        this(numPlayers, 0);
+    }
+    /** constructor that gets the number of players and bots */
+    public TTTGame(int numHumanPlayers, int numBots) {
+        this(numHumanPlayers, numBots, numHumanPlayers + numBots + 1, numHumanPlayers + numBots + 1, 3);
+    }
+    /** constructor that gets the number of players and bots and the shape of the board
+     * runLength marks in a row on a width x height board win
+     */
+    public TTTGame(int numHumanPlayers, int numBots, int width, int height, int runLength) {
+        this(numHumanPlayers, createBots(numHumanPlayers, numBots), width, height, runLength);
+    }
+    /** constructor that gets the number of human players and the bots playing after them
+     * the bots' IDs must be numHumanPlayers+1, numHumanPlayers+2, ... in order
+     */
+    public TTTGame(int numHumanPlayers, Bot[] bots) {
+        this(numHumanPlayers, bots, numHumanPlayers + bots.length + 1, numHumanPlayers + bots.length + 1, 3);
+    }
+    /** constructor that gets the number of human players, the bots playing after them and the shape of the board */
+    public TTTGame(int numHumanPlayers, Bot[] bots, int width, int height, int runLength) {
+        this.currentPlayer = 1;
+        this.numPlayers = numHumanPlayers + bots.length;
+        this.numBots = bots.length;
+        this.board = new TTTBoard(this.numPlayers, width, height, runLength);
+
+        for (int i = 0; i < bots.length; ++i) {
+            if (bots[i].getID() != numHumanPlayers + i + 1) {
+                throw new IllegalArgumentException("Bot "+bots[i].getID()+" cannot take seat "+(numHumanPlayers + i + 1));
+            }
+        }
+        this.bots = bots.clone();
+    }
+
+    /** internal helper creating TTTBots for the seats after the human players */
+    private static Bot[] createBots(int numHumanPlayers, int numBots) {
+        Bot[] bots = new Bot[numBots];
+        for (int i = 0; i < numBots; ++i) {
+            bots[i] = new TTTBot(numHumanPlayers + i + 1, numHumanPlayers + numBots);
+        }
+        return bots;
+    }
+
+    /** lets the bots score their candidate moves in parallel on the given pool (null to switch back) */
+    public void setBotPool(ForkJoinPool pool) {
+        for (Bot bot : this.bots) {
+            if (bot instanceof TTTBot) {
+                ((TTTBot) bot).setPool(pool);
+            }
+        }
+    }
+
+    /** turns printing of the bots' debug output before every bot move of playBots on or off
+     * background turns (see playBotsAsync) never print, bots like TTTBot score every cell a second time for it
+     */
+    public void setDebug(boolean debug) {
+        this.debug = debug;
+    }
+
+    /** records the latency of every addMove call in the given metrics (null to stop)
+     * that is the human move and, unless they move in the background, the bots' replies;
+     * the work of a call is the number of moves it made
+     */
+    public synchronized void setMetrics(MoveMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /** sets where bots move in the background and where callbacks and events are delivered, null for the defaults
+     * an Android UI would deliver them with runOnUiThread
+     */
+    public synchronized void setExecutors(Executor botExecutor, Executor callbackExecutor) {
+        this.botExecutor = botExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /** single daemon thread shared by all games */
+    private static synchronized Executor getDefaultBotExecutor() {
+        if (defaultBotExecutor == null) {
+            defaultBotExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "TTTGame bots");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return defaultBotExecutor;
+    }
+
+    @Override
+    public String getTitle() {
+        if (this.board.getRunLength() != 3) {
+            return this.numPlayers+"-way "+this.board.getRunLength()+" in a Row";
+        }
+        return this.numPlayers+"-way Tic Tac Toe";
+    }
+
+    @Override
+    public void addMove(Coordinate pos) {
+        if (!pos.checkBoundaries(this.board.getWidth(), this.board.getHeight())) {
+            throw new IllegalArgumentException("Cannot make move outside board");
+        }
+        this.addMove(this.board.getIndex(pos));
+    }
+
+    @Override
+    public synchronized void addMove(int index) {
+        if (this.isThinking()) {
+            throw new IllegalStateException("Bots are still moving");
+        }
+        if (this.isOver()) {
+            throw new IllegalStateException("Game is over");
+        }
+        if (this.metrics == null) {
+            this.makeMove(index, this.currentPlayer);
+            this.playBots();
+            return;
+        }
+        long bytes = Metrics.getThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int moves = this.board.getMoveCount();
+        this.makeMove(index, this.currentPlayer);
+        this.playBots();
+        this.record(start, moves, bytes);
+    }
+
+    /** internal helper recording an addMove call that started at the given time and move count */
+    private void record(long start, int moves, long bytes) {
+        long nanos = System.nanoTime() - start;
+        long allocated = bytes < 0 ? 0 : Math.max(Metrics.getThreadAllocatedBytes() - bytes, 0);
+        this.metrics.record(nanos, this.board.getMoveCount() - moves, allocated);
+    }
+
+    /** lets the bots make their moves until it is a human player's turn or the game is over
+     * called after every human move, call it directly to start a game without human players
+     */
+    public synchronized void playBots() {
+        this.awaitBots();
+        int numHumans = this.numPlayers - this.numBots;
+        while (this.currentPlayer > numHumans && !this.isOver()) {
+            Bot bot = this.bots[this.currentPlayer - numHumans - 1];
+            if (this.debug) {
+                System.out.println(bot.debug(this.board));
+            }
+            int move = bot.getMoveIndex(this.board);
+            this.makeMove(move, bot.getID());
+        }
+    }
+
+    @Override
+    public Future<?> addMoveAsync(Coordinate pos, MoveCallback callback) {
+        if (!pos.checkBoundaries(this.board.getWidth(), this.board.getHeight())) {
+            throw new IllegalArgumentException("Cannot make move outside board");
+        }
+        return this.addMoveAsync(this.board.getIndex(pos), callback);
+    }
+
+    @Override
+    public synchronized Future<?> addMoveAsync(int index, MoveCallback callback) {
+        if (this.isThinking()) {
+            throw new IllegalStateException("Bots are still moving");
+        }
+        if (this.isOver()) {
+            throw new IllegalStateException("Game is over");
+        }
+        if (this.metrics == null) {
+            this.makeMove(index, this.currentPlayer);
+            return this.playBotsAsync(callback);
+        }
+        long bytes = Metrics.getThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int moves = this.board.getMoveCount();
+        this.makeMove(index, this.currentPlayer);
+        Future<?> turn = this.playBotsAsync(callback);
+        this.record(start, moves, bytes);
+        return turn;
+    }
+
+    /** like playBots, but the bots move in the background and the callback (may be null) is told when they are done
+     * also resumes bots whose turn was cancelled
+     */
+    public synchronized Future<?> playBotsAsync(MoveCallback callback) {
+        if (this.isThinking()) {
+            throw new IllegalStateException("Bots are still moving");
+        }
+        this.pending = new BotTurn(callback);
+        (this.botExecutor != null ? this.botExecutor : getDefaultBotExecutor()).execute(this.pending);
+        return this.pending;
+    }
+
+    /** abandons the bots' turn running in the background, if any
+     * moves already made stay on the board, the one being searched for is dropped
+     */
+    public synchronized void cancelBots() {
+        if (this.pending != null) {
+            this.pending.cancel(true);
+        }
+    }
+
+    @Override
+    public synchronized boolean isThinking() {
+        return this.pending != null && !this.pending.isDone();
+    }
+
+    /** the bots' moves of one turn, searched without holding the lock and made with it */
+    private class BotTurn extends FutureTask<Void> {
+        private final MoveCallback callback;
+
+        BotTurn(MoveCallback callback) {
+            super(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    TTTGame.this.runBots();
+                    return null;
+                }
+            });
+            this.callback = callback;
+        }
+
+        @Override
+        protected void done() {
+            if (this.isCancelled() || this.callback == null) {
+                return;
+            }
+            Runnable delivery;
+            try {
+                this.get();
+                delivery = new Runnable() {
+                    @Override
+                    public void run() {
+                        BotTurn.this.callback.movesDone();
+                    }
+                };
+            } catch (ExecutionException e) {
+                final Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                delivery = new Runnable() {
+                    @Override
+                    public void run() {
+                        BotTurn.this.callback.moveFailed(cause);
+                    }
+                };
+            } catch (InterruptedException e) {
+                // cannot happen, the task is done
+                return;
+            }
+            Executor executor = TTTGame.this.getCallbackExecutor();
+            if (executor != null) {
+                executor.execute(delivery);
+            } else {
+                delivery.run();
+            }
+        }
+    }
+
+    private synchronized Executor getCallbackExecutor() {
+        return this.callbackExecutor;
+    }
+
+    /** waits until no cancelled bots' turn is using the bots any more, must hold the lock */
+    private void awaitBots() {
+        boolean interrupted = false;
+        while (this.botsRunning) {
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** body of a BotTurn, stops as soon as the turn is cancelled
+     * turns run one at a time, so a turn started after a cancelled one waits for it to stop
+     */
+    private void runBots() {
+        synchronized (this) {
+            try {
+                while (this.botsRunning) {
+                    this.wait();
+                }
+            } catch (InterruptedException e) {
+                // this turn was cancelled while waiting
+                Thread.currentThread().interrupt();
+                return;
+            }
+            this.botsRunning = true;
+        }
+        try {
+            this.searchBots();
+        } finally {
+            synchronized (this) {
+                this.botsRunning = false;
+                this.notifyAll();
+            }
+        }
+    }
+
+    /** internal helper letting the bots search and move until it is a human player's turn, the game is over
+     * or the turn is cancelled
+     */
+    private void searchBots() {
+        int numHumans = this.numPlayers - this.numBots;
+        while (true) {
+            Bot bot;
+            synchronized (this) {
+                if (Thread.currentThread().isInterrupted() || this.currentPlayer <= numHumans || this.isOver()) {
+                    return;
+                }
+                bot = this.bots[this.currentPlayer - numHumans - 1];
+                if (this.searchBoard == null) {
+                    this.searchBoard = this.board.snapshot();
+                } else {
+                    this.searchBoard.restore(this.board);
+                }
+            }
+            int move = bot.getMoveIndex(this.searchBoard);
+            synchronized (this) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                this.makeMove(move, bot.getID());
+            }
+        }
+    }
+
+    /** internal helper making a move, telling the listeners and passing the turn on */
+    private void makeMove(int index, int player) {
+        this.board.addMove(index, player);
+        this.winner = this.board.checkLastMove();
+        if (this.listeners.length > 0) {
+            Coordinate pos = this.board.getCoordinate(index);
+            this.fire(MOVE_MADE, pos, player);
+            if (this.winner > 0) {
+                this.fire(GAME_WON, pos, this.winner);
+            } else if (this.board.checkFull()) {
+                this.fire(GAME_DRAWN, pos, 0);
+            }
+        }
+        this.nextPlayer();
+    }
+
+    @Override
+    public synchronized void addGameListener(GameListener listener) {
+        GameListener[] listeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public synchronized void removeGameListener(GameListener listener) {
+        List<GameListener> listeners = new ArrayList<GameListener>(Arrays.asList(this.listeners));
+        listeners.remove(listener);
+        this.listeners = listeners.toArray(new GameListener[listeners.size()]);
+    }
+
+    /** tells the listeners about an event, through the callback executor if there is one
+     * without one nothing is allocated, so listening to every move stays cheap
+     */
+    private void fire(final int event, final Coordinate pos, final int player) {
+        if (this.callbackExecutor == null) {
+            this.dispatch(event, pos, player);
+            return;
+        }
+        this.callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                TTTGame.this.dispatch(event, pos, player);
+            }
+        });
+    }
+
+    private void dispatch(int event, Coordinate pos, int player) {
+        for (GameListener listener : this.listeners) {
+            switch (event) {
+                case MOVE_MADE:
+                    listener.moveMade(pos, player);
+                    break;
+                case MOVE_UNDONE:
+                    listener.moveUndone(pos, player);
+                    break;
+                case GAME_WON:
+                    listener.gameWon(pos, player);
+                    break;
+                default:
+                    listener.gameDrawn(pos);
+                    break;
+            }
+        }
+    }
+
+    /** internal helper passing the turn on */
+    private void nextPlayer() {
+        if (this.currentPlayer == this.numPlayers) {
+            this.currentPlayer = 1;
+        } else {
+            this.currentPlayer++;
+        }
+    }
+
+    /** returns true if, and only if, some player has won or the board is full */
+    public synchronized boolean isOver() {
+        return this.winner > 0 || this.board.checkFull();
+    }
+
+    /** returns the player that won the game or 0 if nobody has won (yet) */
+    public synchronized int getWinner() {
+        return this.winner;
+    }
+
+    /** takes back the last move of a human player together with the bot moves that followed it
+     * afterwards it is that player's turn again
+     * returns false if no human player has made a move yet
+     * a bots' turn running in the background is cancelled first
+     */
+    public synchronized boolean undoMove() {
+        this.cancelBots();
+        int numHumans = this.numPlayers - this.numBots;
+        while (numHumans > 0 && this.board.getMoveCount() > 0) {
+            // bots only move after a human did, so this always stops at a human move
+            Coordinate pos = this.board.getLastMove();
+            int player = this.board.getPlayer(pos);
+            this.board.undoMove();
+            if (this.listeners.length > 0) {
+                this.fire(MOVE_UNDONE, pos, player);
+            }
+            if (player <= numHumans) {
+                this.currentPlayer = player;
+                this.winner = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getContent(Coordinate pos) {
+        return this.getContent(this.board.getIndex(pos));
+    }
+
+    @Override
+    public synchronized String getContent(int index) {
+        String result = "";
+        int player = this.board.getPlayer(index);
+        if (player > 0) {
+            result += player;
+        }
+        return result;
+    }
+
+    /** returns the number of the player whose turn it is */
+    public synchronized int getCurrentPlayer() {
+        return this.currentPlayer;
+    }
+
+    /** getter for the number of players, human and bot */
+    public int getNumPlayers() {
+        return this.numPlayers;
+    }
+
+    /** getter for the number of marks in a row needed to win */
+    public int getRunLength() {
+        return this.board.getRunLength();
+    }
+
+    @Override
+    public int getHorizontalSize() {
+        return this.board.getWidth();
+    }
+
+    @Override
+    public int getVerticalSize() {
+        return this.board.getHeight();
+    }
+
+    @Override
+    public synchronized void checkResult() {
+        // every move is checked as it is made, so only the lines through it need walking
+        if (this.winner > 0) {
+            this.ui.showResult("Player "+this.winner+" wins!");
+        }
+        if (this.board.checkFull()) {
+            this.ui.showResult("This is a DRAW!");
+        }
+    }
+
+    @Override
+    public synchronized boolean isFree(Coordinate pos) {
+        return this.board.isFree(pos);
+    }
+
+    @Override
+    public synchronized boolean isFree(int index) {
+        return this.board.isFree(index);
+    }
+
+    @Override
+    public void setUserInterface(UserInterface ui) {
+        this.ui = ui;
+        
+    }
+    
+    public synchronized String toString() {
+        return "Board before Player "+this.currentPlayer+" of "+this.numPlayers+"'s turn:\n"+this.board.toString();
+    }
+
+}
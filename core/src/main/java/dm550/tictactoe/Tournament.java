@@ -0,0 +1,253 @@
+package dm550.tictactoe;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** headless runner playing many bot-only games through TTTGame
+ * games are spread over several threads, afterwards it reports throughput,
+ * results by seat and the latency of the bots' moves
+ * the first plies of every game are played randomly, so deterministic bots still play different games
+ * usage: Tournament [games] [players] [threads] [random plies] [record file]
+ * with a record file, all games are appended to it (see GameRecordWriter)
+ */
+public class Tournament {
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1000000;
+        int numPlayers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int randomPlies = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        Tournament tournament = new Tournament(numPlayers, randomPlies);
+        GameRecordWriter recorder = args.length > 4 ? new GameRecordWriter(new File(args[4]), true) : null;
+        tournament.setRecorder(recorder);
+        Result result;
+        try {
+            result = tournament.run(games, threads);
+        } finally {
+            if (recorder != null) {
+                recorder.close();
+            }
+        }
+        System.out.println(result);
+    }
+
+    /** results of a tournament, or of one thread's share of it */
+    public static class Result {
+        /** wins by seat, index 0 counts draws */
+        private final long[] wins;
+
+        /** latency of single bot moves by seat, index 0 unused */
+        private final LatencyHistogram[] moveLatency;
+
+        private long games;
+        private long moves;
+        private long nanos;
+
+        Result(int numPlayers) {
+            this.wins = new long[numPlayers + 1];
+            this.moveLatency = new LatencyHistogram[numPlayers + 1];
+            for (int seat = 1; seat <= numPlayers; ++seat) {
+                this.moveLatency[seat] = new LatencyHistogram();
+            }
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < this.wins.length; ++i) {
+                this.wins[i] += other.wins[i];
+            }
+            for (int seat = 1; seat < this.moveLatency.length; ++seat) {
+                this.moveLatency[seat].merge(other.moveLatency[seat]);
+            }
+            this.games += other.games;
+            this.moves += other.moves;
+        }
+
+        /** getter for the number of games played */
+        public long getGames() {
+            return this.games;
+        }
+
+        /** returns the number of games won by the given seat, or drawn for seat 0 */
+        public long getWins(int seat) {
+            return this.wins[seat];
+        }
+
+        /** returns the latency histogram of single bot moves of all seats */
+        public LatencyHistogram getMoveLatency() {
+            LatencyHistogram all = new LatencyHistogram();
+            for (int seat = 1; seat < this.moveLatency.length; ++seat) {
+                all.merge(this.moveLatency[seat]);
+            }
+            return all;
+        }
+
+        /** returns the latency histogram of single moves of the bot in the given seat */
+        public LatencyHistogram getMoveLatency(int seat) {
+            return this.moveLatency[seat];
+        }
+
+        /** returns the number of games played per second */
+        public double getGamesPerSecond() {
+            return this.nanos == 0 ? 0 : this.games * 1e9 / this.nanos;
+        }
+
+        public String toString() {
+            StringBuilder outp = new StringBuilder();
+            outp.append(this.games+" games, "+this.moves+" moves in "+(this.nanos / 1000000)+"ms\n");
+            outp.append(String.format("%.0f games/s, %.0f moves/s\n",
+                    this.getGamesPerSecond(), this.nanos == 0 ? 0 : this.moves * 1e9 / this.nanos));
+            for (int seat = 1; seat < this.wins.length; ++seat) {
+                outp.append(String.format("Player %d wins: %.2f%%\n", seat, 100.0 * this.wins[seat] / this.games));
+            }
+            outp.append(String.format("Draws: %.2f%%\n", 100.0 * this.wins[0] / this.games));
+            outp.append("Move latency: "+this.getMoveLatency()+"\n");
+            for (int seat = 1; seat < this.moveLatency.length; ++seat) {
+                outp.append("Player "+seat+" move latency: "+this.moveLatency[seat]+"\n");
+            }
+            return outp.toString();
+        }
+    }
+
+    /** wraps a bot, recording how long each of its moves takes
+     * during the opening it plays random moves instead
+     */
+    private class TimedBot implements Bot {
+        private final Bot bot;
+        private final Result result;
+        private final Random random;
+
+        TimedBot(Bot bot, Result result, Random random) {
+            this.bot = bot;
+            this.result = result;
+            this.random = random;
+        }
+
+        @Override
+        public int getID() {
+            return this.bot.getID();
+        }
+
+        @Override
+        public Coordinate getMove(TTTBoard board) {
+            return board.getCoordinate(this.getMoveIndex(board));
+        }
+
+        @Override
+        public int getMoveIndex(TTTBoard board) {
+            if (board.getMoveCount() < Tournament.this.randomPlies) {
+                int skip = this.random.nextInt(board.countFree());
+                int move = board.nextFree(0);
+                for (int i = 0; i < skip; ++i) {
+                    move = board.nextFree(move + 1);
+                }
+                return move;
+            }
+            long start = System.nanoTime();
+            int move = this.bot.getMoveIndex(board);
+            this.result.moveLatency[this.bot.getID()].record(System.nanoTime() - start);
+            this.result.moves++;
+            return move;
+        }
+
+        @Override
+        public void getMoveIndices(TTTBoard[] boards, int count, int[] moves) {
+            for (int i = 0; i < count; ++i) {
+                moves[i] = this.getMoveIndex(boards[i]);
+            }
+        }
+
+        @Override
+        public String debug(TTTBoard board) {
+            return this.bot.debug(board);
+        }
+    }
+
+    private final int numPlayers;
+
+    /** number of moves at the start of each game that are played randomly */
+    private final int randomPlies;
+
+    /** writer recording the games played, may be null */
+    private volatile GameRecordWriter recorder;
+
+    /** constructor for a tournament of TTTBots on a board for the given number of players */
+    public Tournament(int numPlayers, int randomPlies) {
+        this.numPlayers = numPlayers;
+        this.randomPlies = randomPlies;
+    }
+
+    /** creates the bots for one thread, override to pit other bots against each other
+     * the bot for seat i must have ID i
+     */
+    protected Bot[] createBots() {
+        Bot[] bots = new Bot[this.numPlayers];
+        for (int i = 0; i < this.numPlayers; ++i) {
+            bots[i] = new TTTBot(i + 1, this.numPlayers);
+        }
+        return bots;
+    }
+
+    /** setter for a writer recording every game played from now on, null for none */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /** plays the given number of games spread over the given number of threads */
+    public Result run(long games, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Callable<Result>> tasks = new ArrayList<Callable<Result>>();
+        for (int t = 0; t < threads; ++t) {
+            final long share = games / threads + (t < games % threads ? 1 : 0);
+            tasks.add(new Callable<Result>() {
+                @Override
+                public Result call() {
+                    return Tournament.this.play(share);
+                }
+            });
+        }
+
+        Result total = new Result(this.numPlayers);
+        long start = System.nanoTime();
+        try {
+            for (Future<Result> result : pool.invokeAll(tasks)) {
+                total.merge(result.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament game failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        total.nanos = System.nanoTime() - start;
+        return total;
+    }
+
+    /** plays games one after another on the calling thread */
+    private Result play(long games) {
+        Result result = new Result(this.numPlayers);
+        Bot[] bots = this.createBots();
+        Random random = new Random();
+        for (int i = 0; i < bots.length; ++i) {
+            bots[i] = new TimedBot(bots[i], result, random);
+        }
+        for (long g = 0; g < games; ++g) {
+            TTTGame game = new TTTGame(0, bots);
+            game.setDebug(false);
+            if (this.recorder != null) {
+                this.recorder.record(game);
+            }
+            game.playBots();
+            result.wins[game.getWinner()]++;
+            result.games++;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,142 @@
+package dm550.tictactoe;
+
+import java.util.Arrays;
+
+/** fixed-size hash table of search results keyed by Zobrist hash (see TTTBoard.getHash)
+ * every slot holds one entry packed into two longs, so probing and storing never allocate
+ * when two positions map to the same slot, the replacement policy decides which one is kept
+ */
+public class TranspositionTable {
+
+    /** decides whether a new entry may overwrite the one already in its slot */
+    public enum ReplacementPolicy {
+        /** the newest result always wins */
+        ALWAYS,
+        /** keep the deeper result, unless it is left over from an earlier search */
+        DEPTH_PREFERRED
+    }
+
+    /** the stored value is exact */
+    public static final int EXACT = 1;
+
+    /** the stored value is a lower bound (the search failed high) */
+    public static final int LOWER = 2;
+
+    /** the stored value is an upper bound (the search failed low) */
+    public static final int UPPER = 3;
+
+    /** largest move that fits into an entry, the best move is not kept for cells beyond it */
+    public static final int MAX_MOVE = 0xFFFE;
+
+    /** full hash of the position in each slot */
+    private final long[] keys;
+
+    /** packed entry in each slot, 0 if empty
+     * bits  0-31 value, 32-39 depth, 40-41 bound, 42-47 generation, 48-63 move + 1
+     */
+    private final long[] data;
+
+    private final int mask;
+
+    private final ReplacementPolicy policy;
+
+    /** counts searches, so DEPTH_PREFERRED can recognise stale entries */
+    private int generation;
+
+    private long probes;
+    private long hits;
+
+    /** constructor creating a table with 2^bits slots */
+    public TranspositionTable(int bits, ReplacementPolicy policy) {
+        if (bits < 1 || bits > 30) {
+            throw new IllegalArgumentException("Invalid table size");
+        }
+        this.keys = new long[1 << bits];
+        this.data = new long[1 << bits];
+        this.mask = (1 << bits) - 1;
+        this.policy = policy;
+    }
+
+    /** marks the start of a new search, older entries become candidates for replacement */
+    public void newSearch() {
+        this.generation = (this.generation + 1) & 63;
+    }
+
+    /** returns the packed entry stored for the given hash or 0 if there is none
+     * use value, depth, bound and move to unpack it
+     */
+    public long probe(long key) {
+        this.probes++;
+        int slot = (int) key & this.mask;
+        if (this.data[slot] == 0 || this.keys[slot] != key) {
+            return 0;
+        }
+        this.hits++;
+        return this.data[slot];
+    }
+
+    /** stores a search result, move may be -1 if no best move is known
+     * moves above MAX_MOVE are stored as -1, they only ever serve as a hint for move ordering
+     */
+    public void store(long key, int value, int depth, int bound, int move) {
+        if (move < -1 || depth < 0 || bound < EXACT || bound > UPPER) {
+            throw new IllegalArgumentException("Invalid entry: move "+move+", depth "+depth+", bound "+bound);
+        }
+        if (move > MAX_MOVE) {
+            move = -1;
+        }
+        int slot = (int) key & this.mask;
+        long old = this.data[slot];
+        if (old != 0 && this.policy == ReplacementPolicy.DEPTH_PREFERRED && this.keys[slot] != key
+                && generation(old) == this.generation && depth(old) > depth) {
+            return;
+        }
+        this.keys[slot] = key;
+        this.data[slot] = (value & 0xFFFFFFFFL)
+                | (long) Math.min(depth, 255) << 32
+                | (long) bound << 40
+                | (long) this.generation << 42
+                | (long) (move + 1) << 48;
+    }
+
+    /** removes all entries */
+    public void clear() {
+        Arrays.fill(this.data, 0);
+        this.probes = 0;
+        this.hits = 0;
+    }
+
+    /** unpacks the value of an entry */
+    public static int value(long entry) {
+        return (int) entry;
+    }
+
+    /** unpacks the remaining search depth an entry was computed with */
+    public static int depth(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    /** unpacks the bound type (EXACT, LOWER or UPPER) of an entry */
+    public static int bound(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    /** unpacks the best move of an entry, -1 if none was stored */
+    public static int move(long entry) {
+        return (int) (entry >>> 48) - 1;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 42) & 63;
+    }
+
+    /** getter for the number of probes since the last clear */
+    public long getProbes() {
+        return this.probes;
+    }
+
+    /** getter for the number of successful probes since the last clear */
+    public long getHits() {
+        return this.hits;
+    }
+}
@@ -0,0 +1,110 @@
+package dm550.tictactoe;
+
+public class XYCoordinate implements Coordinate {
+
+    /** smallest x and y value kept in the cache, leaves room for shifting off the board */
+    private static final int CACHE_LOW = -8;
+
+    /** number of x and y values kept in the cache */
+    private static final int CACHE_SIZE = 128;
+
+    /** interned instances for small coordinates, filled lazily by valueOf
+     * instances are immutable, so sharing them between threads is safe
+     */
+    private static final XYCoordinate[] CACHE = new XYCoordinate[CACHE_SIZE * CACHE_SIZE];
+
+    /** variables specifying horizontal position on the board */
+    private final int x;
+
+    /** variable specifying vertical positoin on the board */
+    private final int y;
+
+    /** constructor creating a Coordinate from x and y values */
+    public XYCoordinate(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns an XYCoordinate for x,y, reusing a cached instance where possible
+     * Prefer this over the constructor in hot loops, as it does not allocate
+     * @param x
+     * @param y
+     * @return canonical XYCoordinate instance
+     */
+    public static XYCoordinate valueOf(int x, int y) {
+        int cx = x - CACHE_LOW;
+        int cy = y - CACHE_LOW;
+        if (cx < 0 || cx >= CACHE_SIZE || cy < 0 || cy >= CACHE_SIZE) {
+            return new XYCoordinate(x, y);
+        }
+        int i = cy * CACHE_SIZE + cx;
+        XYCoordinate coord = CACHE[i];
+        if (coord == null) {
+            coord = new XYCoordinate(x, y);
+            CACHE[i] = coord;
+        }
+        return coord;
+    }
+
+    @Override
+    public int getX() {
+        return this.x;
+    }
+
+    @Override
+    public int getY() {
+        return this.y;
+    }
+
+    /**
+     * Checks if the coordinate is on a board of size xSize times ySize
+     * A size of UNBOUNDED lets the board go on forever in both directions of that axis
+     * @param xSize
+     * @param ySize
+     * @return
+     */
+    @Override
+    public boolean checkBoundaries(int xSize, int ySize) {
+        if (xSize != UNBOUNDED && (this.x < 0 || this.x >= xSize)) {
+            return false;
+        }
+        if (ySize != UNBOUNDED && (this.y < 0 || this.y >= ySize)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns an XYCoordinate instance representing this coordinate shifted by dx,dy
+     * @param dx
+     * @param dy
+     * @return (usually cached) XYCoordinate instance
+     */
+    @Override
+    public Coordinate shift(int dx, int dy) {
+        return valueOf(this.x + dx, this.y + dy);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof XYCoordinate)) {
+            return false;
+        }
+        XYCoordinate coord = (XYCoordinate) other;
+        return this.x == coord.x && this.y == coord.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.x + this.y;
+    }
+
+    @Override
+    public String toString() {
+        return "XYCoord("+this.x+","+this.y+")";
+    }
+}
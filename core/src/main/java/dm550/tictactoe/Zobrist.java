@@ -0,0 +1,59 @@
+package dm550.tictactoe;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** random keys for Zobrist hashing of board positions
+ * the hash of a position is the xor of the keys of all (cell, player) pairs on it,
+ * so a move updates it with a single xor
+ * keys are derived from (cell, player) alone, so hashes are the same in every run
+ * and for every board that agrees on the cell numbering
+ */
+final class Zobrist {
+
+    /** cache of key tables by board size and number of players */
+    private static final ConcurrentMap<Long, long[]> CACHE = new ConcurrentHashMap<Long, long[]>();
+
+    private Zobrist() {
+    }
+
+    /** returns the key for the given player occupying the given cell */
+    static long key(int cell, int player) {
+        return mix((long) cell << 32 | player);
+    }
+
+    /** returns the key for the given player occupying (x,y) on a board without cell numbering */
+    static long key(int x, int y, int player) {
+        return mix(mix(((long) x << 32) | (y & 0xFFFFFFFFL)) + player);
+    }
+
+    /** splitmix64 finaliser, spreads the value over all 64 bits */
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** returns the key table for a board, key(cell, player) is at player*cells+cell */
+    static long[] table(int cells, int numPlayers) {
+        if ((long) (numPlayers + 1) * cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many keys for "+cells+" cells and "+numPlayers+" players");
+        }
+        Long id = ((long) cells << 32) | numPlayers;
+        long[] keys = CACHE.get(id);
+        if (keys == null) {
+            keys = new long[(numPlayers + 1) * cells];
+            for (int player = 1; player <= numPlayers; ++player) {
+                for (int cell = 0; cell < cells; ++cell) {
+                    keys[player * cells + cell] = key(cell, player);
+                }
+            }
+            long[] existing = CACHE.putIfAbsent(id, keys);
+            if (existing != null) {
+                keys = existing;
+            }
+        }
+        return keys;
+    }
+}
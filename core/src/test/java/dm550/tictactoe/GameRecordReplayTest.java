@@ -0,0 +1,70 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class GameRecordReplayTest {
+
+    @Test
+    public void replayMatchesTheTournament() throws Exception {
+        File file = File.createTempFile("games", ".rec");
+        file.deleteOnExit();
+        Tournament tournament = new Tournament(2, 2);
+        GameRecordWriter writer = new GameRecordWriter(file, false);
+        tournament.setRecorder(writer);
+        Tournament.Result played = tournament.run(30000, 3);
+        writer.close();
+        // enough games for several blocks, so the file is split between the threads
+        assertTrue(file.length() > 2 * GameRecordWriter.BLOCK_SIZE);
+
+        GameRecordReplay.Result replayed = new GameRecordReplay(file).run(4);
+        assertEquals(played.getGames(), replayed.getGames());
+        for (int seat = 0; seat <= 2; ++seat) {
+            assertEquals(played.getWins(seat), replayed.getWins(seat));
+        }
+        long openings = 0;
+        long lengths = 0;
+        for (int i = 0; i < 9; ++i) {
+            openings += replayed.getFirstMoves(i);
+        }
+        for (int moves = 0; moves <= 9; ++moves) {
+            lengths += replayed.getLengthCount(moves);
+        }
+        assertEquals(played.getGames(), openings);
+        assertEquals(played.getGames(), lengths);
+        assertEquals(0, replayed.getLengthCount(4));
+    }
+
+    @Test
+    public void botsAgreeWithThemselves() throws Exception {
+        File file = File.createTempFile("games", ".rec");
+        file.deleteOnExit();
+        GameRecordWriter writer = new GameRecordWriter(file, false);
+        for (int g = 0; g < 10; ++g) {
+            TTTGame game = new TTTGame(0, 2);
+            game.setDebug(false);
+            writer.record(game);
+            game.playBots();
+        }
+        // a game on another board is skipped
+        TTTGame other = new TTTGame(0, 3);
+        other.setDebug(false);
+        writer.record(other);
+        other.playBots();
+        writer.close();
+
+        GameRecordReplay replay = new GameRecordReplay(file) {
+            @Override
+            protected Bot[] createBots(int numPlayers) {
+                return new Bot[] {new TTTBot(1, numPlayers), new TTTBot(2, numPlayers)};
+            }
+        };
+        GameRecordReplay.Result result = replay.run(2);
+        assertEquals(10, result.getGames());
+        assertEquals(1, result.getSkipped());
+        assertEquals(1.0, result.getAgreement(), 0);
+    }
+}
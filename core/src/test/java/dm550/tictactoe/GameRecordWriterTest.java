@@ -0,0 +1,114 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class GameRecordWriterTest {
+
+    @Test
+    public void varintsRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        int[] values = {0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE};
+        for (int value : values) {
+            GameRecordWriter.putVarint(buffer, value);
+        }
+        assertEquals(1 + 1 + 1 + 2 + 2 + 2 + 3 + 5, buffer.position());
+        buffer.flip();
+        for (int value : values) {
+            assertEquals(value, GameRecordWriter.getVarint(buffer));
+        }
+    }
+
+    @Test
+    public void recordedGamesMatchTheBoards() throws Exception {
+        File file = File.createTempFile("games", ".rec");
+        file.deleteOnExit();
+        GameRecordWriter writer = new GameRecordWriter(file, false);
+        TTTGame[] games = {
+            new TTTGame(0, 2),
+            new TTTGame(0, 2),
+            new TTTGame(0, 3, 7, 6, 4),
+        };
+        for (TTTGame game : games) {
+            game.setDebug(false);
+            writer.record(game);
+            game.playBots();
+        }
+        writer.close();
+        assertEquals(games.length, writer.getGameCount());
+
+        ByteBuffer in = ByteBuffer.allocate((int) file.length());
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        raf.getChannel().read(in);
+        raf.close();
+        in.flip();
+
+        // the two 3x3 games share a block, the change of shape starts a new one
+        int[] blockGames = {2, 1};
+        int g = 0;
+        for (int block = 0; block < blockGames.length; ++block) {
+            TTTGame first = games[g];
+            assertEquals(GameRecordWriter.MAGIC, in.getInt());
+            assertEquals(GameRecordWriter.VERSION, in.getShort());
+            assertEquals(first.getHorizontalSize(), in.getShort());
+            assertEquals(first.getVerticalSize(), in.getShort());
+            int numPlayers = in.get();
+            assertEquals(first.getNumPlayers(), numPlayers);
+            assertEquals(first.getRunLength(), in.get());
+            assertEquals(blockGames[block], in.getInt());
+            int end = in.getInt() + in.position();
+            for (int i = 0; i < blockGames[block]; ++i, ++g) {
+                int width = games[g].getHorizontalSize();
+                int moves = GameRecordWriter.getVarint(in);
+                int filled = 0;
+                for (int m = 0; m < moves; ++m) {
+                    int move = GameRecordWriter.getVarint(in);
+                    int cell = move / numPlayers;
+                    XYCoordinate pos = new XYCoordinate(cell % width, cell / width);
+                    assertEquals(String.valueOf(move % numPlayers + 1), games[g].getContent(pos));
+                    filled++;
+                }
+                int occupied = 0;
+                for (int index = 0; index < width * games[g].getVerticalSize(); ++index) {
+                    if (!games[g].isFree(index)) {
+                        occupied++;
+                    }
+                }
+                assertEquals(occupied, filled);
+            }
+            assertEquals(end, in.position());
+        }
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    public void recordsWideBoardsAndRejectsShapesTheHeaderCannotHold() throws Exception {
+        File file = File.createTempFile("games", ".rec");
+        file.deleteOnExit();
+        GameRecordWriter writer = new GameRecordWriter(file, false);
+        // player 1 takes cells 0 to 2, player 2 cells 10 and 11 in between
+        int[] moves = {0 * 2, 10 * 2 + 1, 1 * 2, 11 * 2 + 1, 2 * 2};
+        writer.append(40000, 1, 2, 3, moves, moves.length);
+        int[][] shapes = {{70000, 1, 2, 3}, {1, 0, 2, 3}, {10, 10, 256, 3}, {10, 10, 2, 300}, {50000, 50000, 1, 3}};
+        for (int[] shape : shapes) {
+            try {
+                writer.append(shape[0], shape[1], shape[2], shape[3], moves, 0);
+                fail("Shape "+shape[0]+"x"+shape[1]+" accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        writer.close();
+        assertEquals(1, writer.getGameCount());
+
+        GameRecordReplay.Result result = new GameRecordReplay(file).run(1);
+        assertEquals(1, result.getGames());
+        assertEquals(0, result.getSkipped());
+        assertEquals(1, result.getWins(1));
+    }
+}
@@ -0,0 +1,130 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LineIndexTest {
+
+    /** checks every line's counts and owner against the cells of the board */
+    private static void assertMatchesBoard(TTTBoard board) {
+        BoardGeometry geometry = board.getGeometry();
+        LineIndex lines = board.getLineIndex();
+        int runLength = geometry.runLength;
+        for (int l = 0; l < geometry.numLines; ++l) {
+            int[] counts = new int[board.getNumPlayers() + 1];
+            for (int j = l * runLength; j < (l + 1) * runLength; ++j) {
+                int player = board.getPlayer(geometry.lineCells[j]);
+                if (player != 0) {
+                    counts[0]++;
+                    counts[player]++;
+                }
+            }
+            int owner = 0;
+            for (int p = 1; p <= board.getNumPlayers(); ++p) {
+                assertEquals(counts[p], lines.getCount(l, p));
+                if (counts[p] > 0) {
+                    owner = owner == 0 ? p : LineIndex.SHARED;
+                }
+            }
+            assertEquals(counts[0], lines.getCount(l, 0));
+            assertEquals(owner, lines.getOwner(l));
+        }
+    }
+
+    @Test
+    public void followsMovesAndUndos() throws Exception {
+        Random random = new Random(550);
+        for (int game = 0; game < 200; ++game) {
+            int numPlayers = 2 + random.nextInt(3);
+            TTTBoard board = new TTTBoard(numPlayers, 2 + random.nextInt(8), 2 + random.nextInt(8), 2 + random.nextInt(4));
+            board.getLineIndex();
+            TTTBoard start = board.snapshot();
+            while (!board.checkFull()) {
+                if (board.getMoveCount() > 0 && random.nextInt(4) == 0) {
+                    board.undoMove();
+                } else {
+                    int index;
+                    do {
+                        index = random.nextInt(board.getCellCount());
+                    } while (!board.isFree(index));
+                    board.addMove(index, 1 + random.nextInt(numPlayers));
+                }
+                assertMatchesBoard(board);
+            }
+            // copies and restores carry the index along
+            assertMatchesBoard(board.snapshot());
+            board.restore(start);
+            assertMatchesBoard(board);
+        }
+    }
+
+    @Test
+    public void answersThreatQueries() throws Exception {
+        Random random = new Random(550);
+        for (int game = 0; game < 300; ++game) {
+            int numPlayers = 2 + random.nextInt(3);
+            TTTBoard board = new TTTBoard(numPlayers, 3 + random.nextInt(6), 3 + random.nextInt(6), 3 + random.nextInt(2));
+            int moves = random.nextInt(board.getCellCount());
+            for (int move = 0; move < moves && board.checkLastMove() == 0; ++move) {
+                int index;
+                do {
+                    index = random.nextInt(board.getCellCount());
+                } while (!board.isFree(index));
+                board.addMove(index, move % numPlayers + 1);
+            }
+            if (board.checkWinning() != 0 || board.checkFull()) {
+                continue;
+            }
+            LineIndex lines = board.getLineIndex();
+            for (int player = 1; player <= numPlayers; ++player) {
+                boolean anyWin = false;
+                for (int i = board.nextFree(0); i >= 0; i = board.nextFree(i + 1)) {
+                    board.addMove(i, player);
+                    boolean wins = board.checkLastMove() == player;
+                    // a double threat leaves at least two different winning cells
+                    int winningCells = 0;
+                    for (int j = board.nextFree(0); j >= 0; j = board.nextFree(j + 1)) {
+                        if (lines.isWinningMove(j, player)) {
+                            winningCells++;
+                        }
+                    }
+                    board.undoMove();
+                    assertEquals(wins, lines.isWinningMove(i, player));
+                    if (lines.isDoubleThreat(i, player)) {
+                        assertTrue(winningCells >= 2);
+                    }
+                    anyWin |= wins;
+                }
+                int found = lines.findWinningMove(player);
+                assertEquals(anyWin, found >= 0);
+                if (found >= 0) {
+                    assertTrue(lines.isWinningMove(found, player));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rejectsPlayersItCannotStore() throws Exception {
+        TTTBoard board = new TTTBoard(Byte.MAX_VALUE, 5, 5, 3);
+        board.addMove(12, Byte.MAX_VALUE);
+        LineIndex lines = board.getLineIndex();
+        int owned = 0;
+        for (int l = 0; l < lines.getLineCount(); ++l) {
+            if (lines.getOwner(l) != 0) {
+                assertEquals(Byte.MAX_VALUE, lines.getOwner(l));
+                owned++;
+            }
+        }
+        assertTrue(owned > 0);
+        try {
+            new TTTBoard(Byte.MAX_VALUE + 1, 5, 5, 3).getLineIndex();
+            fail("Index for "+(Byte.MAX_VALUE + 1)+" players created");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MCTSBotTest {
+
+    @Test
+    public void takesWin() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        board.addMove(new XYCoordinate(0, 0), 1);
+        board.addMove(new XYCoordinate(1, 0), 2);
+        board.addMove(new XYCoordinate(0, 1), 1);
+        board.addMove(new XYCoordinate(1, 1), 2);
+        MCTSBot bot = new MCTSBot(1, 2, 5000);
+        bot.setPlayoutBudget(2000);
+        assertEquals(new XYCoordinate(0, 2), bot.getMove(board));
+    }
+
+    @Test
+    public void keepsToPlayoutBudget() throws Exception {
+        TTTBoard board = new TTTBoard(2, 7, 7, 4);
+        MCTSBot bot = new MCTSBot(1, 2, 5000);
+        bot.setThreads(4);
+        for (long budget : new long[] {1, 3, 4, 5, 1001}) {
+            bot.setPlayoutBudget(budget);
+            assertTrue(board.isFree(bot.getMoveIndex(board)));
+            assertEquals(budget, bot.getPlayoutCount());
+        }
+        try {
+            bot.setPlayoutBudget(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void stopsWhenInterrupted() throws Exception {
+        // more workers than pool threads, so some of them are still waiting when the interrupt comes
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final TTTBoard board = new TTTBoard(2, 15, 15, 5);
+            final MCTSBot bot = new MCTSBot(1, 2, 5000);
+            bot.setThreads(4);
+            bot.setPool(pool);
+            final int[] move = {-1};
+            final boolean[] interrupted = {false};
+            Thread searcher = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    move[0] = bot.getMoveIndex(board);
+                    interrupted[0] = Thread.currentThread().isInterrupted();
+                }
+            });
+            long start = System.nanoTime();
+            searcher.start();
+            Thread.sleep(200);
+            searcher.interrupt();
+            searcher.join(5000);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertFalse(searcher.isAlive());
+            assertTrue(millis+"ms", millis < 2000);
+            assertTrue(board.isFree(move[0]));
+            assertTrue(interrupted[0]);
+            assertTrue(bot.getPlayoutCount() > 0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @Test
+    public void stripesAddUp() throws Exception {
+        final MoveMetrics metrics = Metrics.get("test.stripes");
+        assertSame(metrics, Metrics.get("test.stripes"));
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; ++t) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; ++i) {
+                        metrics.record(i, 2, 8);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // a batch of 10 moves taking 5000ns in total
+        metrics.record(10, 5000, 10, 0);
+
+        assertEquals(40010, metrics.getMoves());
+        assertEquals(80010, metrics.getWork());
+        assertEquals(320000, metrics.getAllocatedBytes());
+        LatencyHistogram latency = metrics.getLatency();
+        assertEquals(40010, latency.getCount());
+        assertEquals(9999, latency.getMax());
+        assertEquals((4 * 9999L * 10000 / 2 + 5000) / 40010.0, latency.getMean(), 1e-9);
+        assertTrue(Metrics.snapshot().contains("test.stripes: n=40010"));
+    }
+
+    @Test
+    public void recordsBotAndGameMoves() throws Exception {
+        MoveMetrics bots = Metrics.get("test.bots");
+        MoveMetrics moves = Metrics.get("test.addMove");
+        TTTGame game = new TTTGame(1, new Bot[] {new MeteredBot(new TTTBot(2, 2), bots)});
+        game.setDebug(false);
+        game.setMetrics(moves);
+        game.addMove(new XYCoordinate(1, 1));
+
+        assertEquals(1, bots.getMoves());
+        // the bot scored the 8 cells left free by the human
+        assertEquals(8, bots.getWork());
+        assertEquals(1, moves.getMoves());
+        // the human move and the bot's reply
+        assertEquals(2, moves.getWork());
+        assertTrue(moves.getLatency().getMax() >= bots.getLatency().getMax());
+    }
+}
@@ -0,0 +1,74 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OpeningBookTest {
+
+    @Test
+    public void writtenBookIsFoundAgain() throws Exception {
+        File file = File.createTempFile("opening", ".book");
+        file.deleteOnExit();
+        Random random = new Random(550);
+        long[] keys = new long[1000];
+        int[] moves = new int[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = random.nextLong();
+            moves[i] = random.nextInt(9);
+        }
+        OpeningBook.write(file, new TTTBoard(2), keys, moves);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(keys.length, book.size());
+        for (int i = 0; i < keys.length; ++i) {
+            assertEquals(moves[i], book.lookup(keys[i]));
+        }
+        assertEquals(-1, book.lookup(random.nextLong()));
+        assertTrue(book.fits(new TTTBoard(2)));
+        assertFalse(book.fits(new TTTBoard(3)));
+    }
+
+    @Test
+    public void bookBotPlaysBookMoves() throws Exception {
+        File file = File.createTempFile("opening", ".book");
+        file.deleteOnExit();
+        OpeningBookBuilder builder = new OpeningBookBuilder(2, 2, new Random(550));
+        builder.play(2000);
+        assertTrue(builder.write(file, 5) > 0);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(1, book.getMaxPly());
+        TTTBoard board = new TTTBoard(2);
+        int move = book.lookup(board);
+        assertTrue(move >= 0);
+        assertEquals(move, new BookBot(new TTTBot(1, 2), book).getMoveIndex(board));
+
+        // out of book, or a book for another board, falls back to the wrapped bot
+        TTTBoard other = new TTTBoard(3);
+        assertEquals(-1, book.lookup(other));
+        assertEquals(new TTTBot(1, 3).getMoveIndex(other), new BookBot(new TTTBot(1, 3), book).getMoveIndex(other));
+    }
+
+    @Test
+    public void skipsPositionsPastTheMaxPly() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        board.addMove(new XYCoordinate(0, 0), 1);
+        board.addMove(new XYCoordinate(1, 1), 2);
+        board.addMove(new XYCoordinate(2, 0), 1);
+        int t = Symmetry.canonicalTransform(board);
+        long[] keys = {Symmetry.hash(board, t)};
+        int[] moves = {Symmetry.apply(board, t, board.getIndex(new XYCoordinate(1, 0)))};
+        for (int maxPly = 2; maxPly <= 3; ++maxPly) {
+            File file = File.createTempFile("opening", ".book");
+            file.deleteOnExit();
+            OpeningBook.write(file, board, keys, moves, maxPly);
+            OpeningBook book = OpeningBook.open(file);
+            assertEquals(maxPly, book.getMaxPly());
+            assertEquals(maxPly == 3 ? board.getIndex(new XYCoordinate(1, 0)) : -1, book.lookup(board));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SearchBotTest {
+
+    @Test
+    public void takesWin() throws Exception {
+        for (SearchBot.Mode mode : SearchBot.Mode.values()) {
+            TTTBoard board = new TTTBoard(2);
+            board.addMove(new XYCoordinate(0, 0), 1);
+            board.addMove(new XYCoordinate(1, 0), 2);
+            board.addMove(new XYCoordinate(0, 1), 1);
+            board.addMove(new XYCoordinate(1, 1), 2);
+            // winning beats blocking the opponent's win
+            assertEquals(mode.toString(), new XYCoordinate(0, 2), new SearchBot(1, 2, mode, 1000).getMove(board));
+        }
+    }
+
+    @Test
+    public void blocksWin() throws Exception {
+        for (SearchBot.Mode mode : SearchBot.Mode.values()) {
+            TTTBoard board = new TTTBoard(2);
+            board.addMove(new XYCoordinate(0, 0), 1);
+            board.addMove(new XYCoordinate(2, 2), 2);
+            board.addMove(new XYCoordinate(1, 0), 1);
+            assertEquals(mode.toString(), new XYCoordinate(2, 0), new SearchBot(2, 2, mode, 1000).getMove(board));
+        }
+    }
+
+    @Test
+    public void drawsAgainstItself() throws Exception {
+        // 3x3 is solved within the budget, so perfect play on both sides ends in a draw
+        for (SearchBot.Mode mode : SearchBot.Mode.values()) {
+            TTTBoard board = new TTTBoard(2);
+            SearchBot[] bots = {new SearchBot(1, 2, mode, 5000), new SearchBot(2, 2, mode, 5000)};
+            int player = 1;
+            while (board.checkWinning() == 0 && !board.checkFull()) {
+                SearchBot bot = bots[player - 1];
+                int free = board.countFree();
+                board.addMove(bot.getMoveIndex(board), player);
+                assertEquals(mode.toString(), free, bot.getCompletedDepth());
+                player = player % 2 + 1;
+            }
+            assertEquals(mode.toString(), 0, board.checkWinning());
+        }
+    }
+
+    @Test
+    public void stopsWhenInterrupted() throws Exception {
+        for (SearchBot.Mode mode : SearchBot.Mode.values()) {
+            final TTTBoard board = new TTTBoard(2, 15, 15, 5);
+            final SearchBot bot = new SearchBot(1, 2, mode, 5000);
+            final int[] move = {-1};
+            Thread searcher = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    move[0] = bot.getMoveIndex(board);
+                }
+            });
+            long start = System.nanoTime();
+            searcher.start();
+            Thread.sleep(200);
+            searcher.interrupt();
+            searcher.join(5000);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertFalse(searcher.isAlive());
+            assertTrue(mode+" "+millis+"ms", millis < 2000);
+            assertTrue(board.isFree(move[0]));
+        }
+    }
+
+    @Test
+    public void storesWinsRelativeToThePosition() throws Exception {
+        // a win 5 plies after the root, stored at ply 2, is 3 plies away from that position
+        int win = (1 << 30) - 5;
+        int stored = SearchBot.toTable(win, 2);
+        assertEquals((1 << 30) - 3, stored);
+        // found again one move later, at ply 1 of the next search, it is 4 plies away from the new root
+        assertEquals((1 << 30) - 4, SearchBot.fromTable(stored, 1));
+        assertEquals(-stored, SearchBot.toTable(-win, 2));
+        assertEquals(-((1 << 30) - 4), SearchBot.fromTable(-stored, 1));
+        // heuristic scores are kept as they are
+        assertEquals(4711, SearchBot.toTable(4711, 7));
+        assertEquals(-4711, SearchBot.fromTable(-4711, 7));
+    }
+
+    @Test
+    public void winsQuicklyWithTheTableKeptAcrossMoves() throws Exception {
+        // the first player wins 3 in a row on 4x4, the bot must never let a win in one slip
+        for (SearchBot.Mode mode : SearchBot.Mode.values()) {
+            TTTBoard board = new TTTBoard(2, 4, 4, 3);
+            SearchBot bot = new SearchBot(1, 2, mode, 1000);
+            TTTBot opponent = new TTTBot(2, 2);
+            int player = 1;
+            while (board.checkWinning() == 0 && !board.checkFull()) {
+                if (player == 1) {
+                    boolean canWin = false;
+                    for (int i = board.nextFree(0); i >= 0; i = board.nextFree(i + 1)) {
+                        board.addMove(i, 1);
+                        canWin |= board.checkLastMove() == 1;
+                        board.undoMove();
+                    }
+                    board.addMove(bot.getMoveIndex(board), 1);
+                    assertTrue(mode.toString(), !canWin || board.checkLastMove() == 1);
+                } else {
+                    board.addMove(opponent.getMoveIndex(board), 2);
+                }
+                player = 3 - player;
+            }
+            assertEquals(mode.toString(), 1, board.checkWinning());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SparseTTTBoardTest {
+
+    @Test
+    public void playsFarApartAndAcrossChunks() throws Exception {
+        SparseTTTBoard board = new SparseTTTBoard(2, 5);
+        board.addMove(XYCoordinate.valueOf(1000000000, -1000000000), 2);
+        // a diagonal crossing from one chunk into the next at (0,0)
+        for (int i = -2; i < 2; ++i) {
+            board.addMove(new XYCoordinate(i, i), 1);
+            assertEquals(0, board.checkLastMove());
+        }
+        board.addMove(new XYCoordinate(2, 2), 1);
+        assertEquals(1, board.checkLastMove());
+        assertEquals(2, board.getPlayer(1000000000, -1000000000));
+        assertEquals(0, board.getPlayer(-1000000000, 1000000000));
+        assertEquals(3, board.getChunkCount());
+        assertFalse(board.checkFull());
+    }
+
+    @Test
+    public void rejectsInvalidMoves() throws Exception {
+        SparseTTTBoard board = new SparseTTTBoard(2, 10, Coordinate.UNBOUNDED, 3);
+        board.addMove(XYCoordinate.valueOf(3, -50), 1);
+        try {
+            board.addMove(XYCoordinate.valueOf(3, -50), 2);
+            fail("occupied");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            board.addMove(XYCoordinate.valueOf(10, 0), 2);
+            fail("outside");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            board.addMove(XYCoordinate.valueOf(0, 0), 3);
+            fail("player");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void matchesDenseBoard() throws Exception {
+        Random random = new Random(550);
+        for (int game = 0; game < 500; ++game) {
+            int numPlayers = 2 + random.nextInt(3);
+            int width = 1 + random.nextInt(40);
+            int height = 1 + random.nextInt(40);
+            int runLength = 1 + random.nextInt(6);
+            TTTBoard dense = new TTTBoard(numPlayers, width, height, runLength);
+            SparseTTTBoard sparse = new SparseTTTBoard(numPlayers, width, height, runLength);
+            while (!dense.checkFull() && dense.checkLastMove() == 0) {
+                int index;
+                do {
+                    index = random.nextInt(dense.getCellCount());
+                } while (!dense.isFree(index));
+                int player = dense.getMoveCount() % numPlayers + 1;
+                dense.addMove(index, player);
+                sparse.addMove(dense.getCoordinate(index), player);
+                assertEquals(dense.checkLastMove(), sparse.checkLastMove());
+                assertEquals(dense.checkFull(), sparse.checkFull());
+            }
+            long hash = sparse.getHash();
+            Coordinate last = sparse.getLastMove();
+            assertEquals(last, sparse.undoMove());
+            assertTrue(sparse.isFree(last));
+            sparse.addMove(last, dense.getPlayer(last));
+            assertEquals(hash, sparse.getHash());
+            for (int i = 0; i < dense.getCellCount(); ++i) {
+                assertEquals(dense.getPlayer(i), sparse.getPlayer(dense.getCoordinate(i)));
+            }
+        }
+    }
+}
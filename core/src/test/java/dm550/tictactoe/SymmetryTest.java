@@ -0,0 +1,60 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SymmetryTest {
+
+    private static TTTBoard randomBoard(Random random, int width, int height) {
+        TTTBoard board = new TTTBoard(2, width, height, 3);
+        int moves = random.nextInt(board.getCellCount() + 1);
+        for (int move = 0; move < moves; ++move) {
+            int index;
+            do {
+                index = random.nextInt(board.getCellCount());
+            } while (!board.isFree(index));
+            board.addMove(index, move % 2 + 1);
+        }
+        return board;
+    }
+
+    @Test
+    public void rotatesClockwiseAndMirrors() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        assertEquals(XYCoordinate.valueOf(2, 0), Symmetry.apply(board, 1, XYCoordinate.valueOf(0, 0)));
+        assertEquals(XYCoordinate.valueOf(2, 2), Symmetry.apply(board, 2, XYCoordinate.valueOf(0, 0)));
+        assertEquals(XYCoordinate.valueOf(0, 2), Symmetry.apply(board, 3, XYCoordinate.valueOf(0, 0)));
+        assertEquals(XYCoordinate.valueOf(2, 1), Symmetry.apply(board, 4, XYCoordinate.valueOf(0, 1)));
+        assertFalse(Symmetry.appliesTo(new TTTBoard(2, 4, 3, 3), 1));
+        assertTrue(Symmetry.appliesTo(new TTTBoard(2, 4, 3, 3), 6));
+    }
+
+    @Test
+    public void transformsAreConsistent() throws Exception {
+        Random random = new Random(550);
+        for (int game = 0; game < 300; ++game) {
+            int width = 1 + random.nextInt(7);
+            int height = random.nextBoolean() ? width : 1 + random.nextInt(7);
+            TTTBoard board = randomBoard(random, width, height);
+            long canonical = Symmetry.canonicalHash(board);
+            for (int t = 0; t < Symmetry.COUNT; ++t) {
+                if (!Symmetry.appliesTo(board, t)) {
+                    assertTrue(width != height && t % 2 == 1);
+                    continue;
+                }
+                TTTBoard transformed = Symmetry.transform(board, t);
+                assertEquals(Symmetry.hash(board, t), transformed.getHash());
+                assertEquals(board.checkWinning() != 0, transformed.checkWinning() != 0);
+                assertEquals(canonical, Symmetry.canonicalHash(transformed));
+                for (int i = 0; i < board.getCellCount(); ++i) {
+                    assertEquals(board.getPlayer(i), transformed.getPlayer(Symmetry.apply(board, t, i)));
+                    assertEquals(i, Symmetry.apply(board, Symmetry.invert(t), Symmetry.apply(board, t, i)));
+                }
+            }
+            assertEquals(canonical, Symmetry.canonical(board).getHash());
+        }
+    }
+}
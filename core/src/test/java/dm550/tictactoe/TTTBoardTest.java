@@ -0,0 +1,256 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TTTBoardTest {
+
+    /** straightforward reference implementation of the win check, cells[x][y] */
+    private static int referenceWinner(int[][] cells, int width, int height, int runLength) {
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {-1, 1}};
+        for (int x = 0; x < width; ++x) {
+            for (int y = 0; y < height; ++y) {
+                int player = cells[x][y];
+                if (player == 0) { continue; }
+                for (int[] d : directions) {
+                    int run = 1;
+                    while (run < runLength) {
+                        int cx = x + run*d[0];
+                        int cy = y + run*d[1];
+                        if (cx < 0 || cx >= width || cy >= height || cells[cx][cy] != player) { break; }
+                        ++run;
+                    }
+                    if (run == runLength) {
+                        return player;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    public void emptyBoard() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        assertEquals(3, board.getWidth());
+        assertEquals(3, board.getHeight());
+        assertEquals(3, board.getRunLength());
+        assertEquals(0, board.checkWinning());
+        assertFalse(board.checkFull());
+        assertEquals(9, board.countFree());
+        assertTrue(board.isFree(new XYCoordinate(2, 1)));
+    }
+
+    @Test
+    public void detectsEveryDirection() throws Exception {
+        int[][][] lines = {
+                {{0, 1}, {1, 1}, {2, 1}},
+                {{2, 0}, {2, 1}, {2, 2}},
+                {{0, 0}, {1, 1}, {2, 2}},
+                {{2, 0}, {1, 1}, {0, 2}},
+        };
+        for (int[][] line : lines) {
+            TTTBoard board = new TTTBoard(2);
+            // play the middle of the line last, so the run extends both ways
+            for (int i : new int[] {0, 2, 1}) {
+                assertEquals(0, board.checkWinning());
+                assertEquals(0, board.checkLastMove());
+                board.addMove(new XYCoordinate(line[i][0], line[i][1]), 2);
+            }
+            assertEquals(2, board.checkWinning());
+            assertEquals(2, board.checkLastMove());
+        }
+    }
+
+    @Test
+    public void matchesReferenceOnOtherShapes() throws Exception {
+        Random random = new Random(550);
+        for (int game = 0; game < 2000; ++game) {
+            int numPlayers = 2 + random.nextInt(3);
+            int width = 1 + random.nextInt(16);
+            int height = 1 + random.nextInt(16);
+            int runLength = 1 + random.nextInt(7);
+            TTTBoard board = new TTTBoard(numPlayers, width, height, runLength);
+            int[][] cells = new int[width][height];
+            int moves = random.nextInt(width * height + 1);
+            for (int move = 0; move < moves; ++move) {
+                int index;
+                do {
+                    index = random.nextInt(board.getCellCount());
+                } while (!board.isFree(index));
+                int player = 1 + random.nextInt(numPlayers);
+                board.addMove(index, player);
+                cells[index % width][index / width] = player;
+                boolean wins = referenceWinner(cells, width, height, runLength) != 0;
+                assertEquals(wins, board.checkWinning() != 0);
+                if (board.checkLastMove() != 0) {
+                    assertTrue(wins);
+                }
+                if (wins) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fiveInARowOnLargeBoard() throws Exception {
+        TTTBoard board = new TTTBoard(2, 15, 15, 5);
+        for (int i = 0; i < 4; ++i) {
+            board.addMove(new XYCoordinate(10 - i, 3 + i), 1);
+            assertEquals(0, board.checkWinning());
+        }
+        board.addMove(new XYCoordinate(6, 7), 1);
+        assertEquals(1, board.checkLastMove());
+        assertEquals(1, board.checkWinning());
+        assertEquals("2-way 5 in a Row", new TTTGame(2, 0, 15, 15, 5).getTitle());
+    }
+
+    @Test
+    public void doesNotWrapAroundEdges() throws Exception {
+        TTTBoard board = new TTTBoard(3);
+        board.addMove(new XYCoordinate(2, 0), 1);
+        board.addMove(new XYCoordinate(3, 0), 1);
+        board.addMove(new XYCoordinate(0, 1), 1);
+        assertEquals(0, board.checkWinning());
+    }
+
+    @Test
+    public void matchesReferenceOnRandomGames() throws Exception {
+        Random random = new Random(550);
+        for (int game = 0; game < 2000; ++game) {
+            int numPlayers = 2 + random.nextInt(5);
+            int size = numPlayers + 1;
+            TTTBoard board = new TTTBoard(numPlayers);
+            int[][] cells = new int[size][size];
+            for (int move = 0; move < size * size; ++move) {
+                int x;
+                int y;
+                do {
+                    x = random.nextInt(size);
+                    y = random.nextInt(size);
+                } while (cells[x][y] != 0);
+                int player = move % numPlayers + 1;
+                cells[x][y] = player;
+                board.addMove(new XYCoordinate(x, y), player);
+                assertEquals(player, board.getPlayer(new XYCoordinate(x, y)));
+                assertEquals(size * size - move - 1, board.countFree());
+                int expected = referenceWinner(cells, size, size, 3);
+                if (expected != 0) {
+                    assertEquals(expected, board.checkWinning());
+                    assertEquals(expected, board.checkLastMove());
+                    break;
+                }
+                assertEquals(0, board.checkWinning());
+                assertEquals(0, board.checkLastMove());
+            }
+        }
+    }
+
+    @Test
+    public void copyIsIndependent() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        board.addMove(new XYCoordinate(1, 1), 1);
+        TTTBoard copy = new TTTBoard(board);
+        copy.addMove(new XYCoordinate(0, 0), 2);
+        assertEquals(1, copy.getPlayer(new XYCoordinate(1, 1)));
+        assertTrue(board.isFree(new XYCoordinate(0, 0)));
+    }
+
+    @Test
+    public void hashDependsOnPositionOnly() throws Exception {
+        TTTBoard a = new TTTBoard(3);
+        TTTBoard b = new TTTBoard(3);
+        assertEquals(a.getHash(), b.getHash());
+        a.addMove(new XYCoordinate(0, 0), 1);
+        a.addMove(new XYCoordinate(2, 3), 2);
+        assertNotEquals(a.getHash(), b.getHash());
+        b.addMove(new XYCoordinate(2, 3), 2);
+        b.addMove(new XYCoordinate(0, 0), 1);
+        assertEquals(a.getHash(), b.getHash());
+        assertEquals(a.getHash(), new TTTBoard(a).getHash());
+    }
+
+    @Test
+    public void undoRestoresPreviousState() throws Exception {
+        Random random = new Random(550);
+        for (int game = 0; game < 200; ++game) {
+            int numPlayers = 2 + random.nextInt(5);
+            TTTBoard board = new TTTBoard(numPlayers);
+            TTTBoard[] states = new TTTBoard[board.countFree() + 1];
+            int moves = 0;
+            states[0] = board.snapshot();
+            while (!board.checkFull() && board.checkLastMove() == 0) {
+                int index;
+                do {
+                    index = random.nextInt(board.getCellCount());
+                } while (!board.isFree(index));
+                board.addMove(index, moves % numPlayers + 1);
+                states[++moves] = board.snapshot();
+            }
+            while (moves > 0) {
+                board.undoMove();
+                TTTBoard expected = states[--moves];
+                assertEquals(expected.toString(), board.toString());
+                assertEquals(expected.getHash(), board.getHash());
+                assertEquals(expected.countFree(), board.countFree());
+                assertEquals(expected.getMoveCount(), board.getMoveCount());
+                assertEquals(expected.getLastMove(), board.getLastMove());
+            }
+        }
+    }
+
+    @Test
+    public void restoreCopiesState() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        board.addMove(new XYCoordinate(0, 0), 1);
+        TTTBoard snapshot = board.snapshot();
+        board.addMove(new XYCoordinate(1, 1), 2);
+        board.addMove(new XYCoordinate(1, 0), 1);
+        board.restore(snapshot);
+        assertEquals(snapshot.toString(), board.toString());
+        assertEquals(snapshot.getHash(), board.getHash());
+        assertEquals(8, board.countFree());
+        assertEquals(new XYCoordinate(0, 0), board.getLastMove());
+        board.addMove(new XYCoordinate(1, 1), 2);
+        assertTrue(snapshot.isFree(new XYCoordinate(1, 1)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotUndoEmptyBoard() throws Exception {
+        new TTTBoard(2).undoMove();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOccupiedPosition() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        board.addMove(new XYCoordinate(1, 1), 1);
+        board.addMove(new XYCoordinate(1, 1), 2);
+    }
+
+    @Test
+    public void oversizedShapesDoNotShareGeometry() throws Exception {
+        try {
+            new TTTBoard(2, 10, 10, (1 << 21) + 3);
+            fail("Run length beyond the limit accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        int[][] shapes = {{2000000, 2000000}, {1 << 12, (1 << 12) + 1}, {BoardGeometry.MAX_SIDE, 9}};
+        for (int[] shape : shapes) {
+            try {
+                new TTTBoard(2, shape[0], shape[1], 3);
+                fail("Board "+shape[0]+"x"+shape[1]+" accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        TTTBoard board = new TTTBoard(2, 10, 11, 3);
+        assertEquals(3, board.getRunLength());
+        assertEquals(110, board.getCellCount());
+        board.addMove(new XYCoordinate(5, 10), 1);
+    }
+}
@@ -0,0 +1,94 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TTTBotTest {
+
+    @Test
+    public void takesWin() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        board.addMove(new XYCoordinate(0, 0), 1);
+        board.addMove(new XYCoordinate(1, 0), 2);
+        board.addMove(new XYCoordinate(0, 1), 1);
+        board.addMove(new XYCoordinate(1, 1), 2);
+        assertEquals(new XYCoordinate(0, 2), new TTTBot(1, 2).getMove(board));
+        assertEquals(new XYCoordinate(1, 2), new TTTBot(2, 2).getMove(board));
+    }
+
+    @Test
+    public void blocksWin() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        board.addMove(new XYCoordinate(0, 0), 1);
+        board.addMove(new XYCoordinate(2, 2), 2);
+        board.addMove(new XYCoordinate(1, 0), 1);
+        assertEquals(new XYCoordinate(2, 0), new TTTBot(2, 2).getMove(board));
+    }
+
+    @Test
+    public void scoresEmptyBoardByAttackLines() throws Exception {
+        TTTBoard board = new TTTBoard(2);
+        TTTBot bot = new TTTBot(1, 2);
+        assertEquals(4, bot.getScore(board, new XYCoordinate(1, 1)));
+        assertEquals(3, bot.getScore(board, new XYCoordinate(0, 0)));
+        assertEquals(2, bot.getScore(board, new XYCoordinate(1, 0)));
+    }
+
+    @Test
+    public void parallelScoringPicksSameMove() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random random = new Random(550);
+        for (int game = 0; game < 200; ++game) {
+            int numPlayers = 2 + random.nextInt(5);
+            TTTBoard board = new TTTBoard(numPlayers);
+            int moves = random.nextInt(board.countFree());
+            for (int move = 0; move < moves; ++move) {
+                int index;
+                do {
+                    index = random.nextInt(board.getCellCount());
+                } while (!board.isFree(index));
+                board.addMove(index, 1 + random.nextInt(numPlayers));
+            }
+            for (int player = 1; player <= numPlayers; ++player) {
+                TTTBot sequential = new TTTBot(player, numPlayers);
+                TTTBot parallel = new TTTBot(player, numPlayers);
+                parallel.setPool(pool);
+                assertEquals(sequential.getMoveIndex(board), parallel.getMoveIndex(board));
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void batchPicksSameMoves() throws Exception {
+        Random random = new Random(550);
+        for (int numPlayers = 2; numPlayers <= 4; ++numPlayers) {
+            TTTBoard[] boards = new TTTBoard[300];
+            for (int i = 0; i < boards.length; ++i) {
+                // mixed shapes and some boards for another number of players, which are scored one by one
+                int players = i % 7 == 0 ? numPlayers + 1 : numPlayers;
+                boards[i] = i % 3 == 0 ? new TTTBoard(players, 7, 5, 4) : new TTTBoard(players);
+                int moves = random.nextInt(boards[i].countFree() + 1);
+                for (int move = 0; move < moves; ++move) {
+                    int index;
+                    do {
+                        index = random.nextInt(boards[i].getCellCount());
+                    } while (!boards[i].isFree(index));
+                    boards[i].addMove(index, 1 + random.nextInt(players));
+                }
+            }
+            for (int player = 1; player <= numPlayers; ++player) {
+                TTTBot bot = new TTTBot(player, numPlayers);
+                int[] moves = new int[boards.length];
+                bot.getMoveIndices(boards, boards.length, moves);
+                for (int i = 0; i < boards.length; ++i) {
+                    assertEquals(bot.getMoveIndex(boards[i]), moves[i]);
+                }
+            }
+        }
+    }
+}
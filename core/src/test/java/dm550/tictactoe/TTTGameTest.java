@@ -0,0 +1,193 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TTTGameTest {
+
+    /** counts down once the bots are done */
+    private static class Latch extends CountDownLatch implements MoveCallback {
+        Latch() {
+            super(1);
+        }
+
+        @Override
+        public void movesDone() {
+            this.countDown();
+        }
+
+        @Override
+        public void moveFailed(Exception e) {
+            fail(e.toString());
+        }
+    }
+
+    @Test
+    public void botsReplyInBackground() throws Exception {
+        TTTGame game = new TTTGame(1, 2);
+        game.setDebug(false);
+        Latch done = new Latch();
+        game.addMoveAsync(XYCoordinate.valueOf(0, 0), done);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertFalse(game.isThinking());
+
+        // both bots have moved, it is the human's turn again
+        int taken = 0;
+        for (int i = 0; i < game.getHorizontalSize() * game.getVerticalSize(); ++i) {
+            if (!game.isFree(i)) {
+                taken++;
+            }
+        }
+        assertEquals(3, taken);
+    }
+
+    @Test
+    public void cancelledTurnMakesNoMoreMoves() throws Exception {
+        // thinks until it is interrupted
+        Bot slow = new TTTBot(2, 2) {
+            @Override
+            public int getMoveIndex(TTTBoard board) {
+                try {
+                    Thread.sleep(Long.MAX_VALUE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return board.nextFree(0);
+            }
+        };
+        TTTGame game = new TTTGame(1, new Bot[] {slow});
+        game.setDebug(false);
+        Future<?> turn = game.addMoveAsync(XYCoordinate.valueOf(1, 1), null);
+        assertTrue(game.isThinking());
+        turn.cancel(true);
+        assertFalse(game.isThinking());
+        assertTrue(game.undoMove());
+        for (int i = 0; i < game.getHorizontalSize() * game.getVerticalSize(); ++i) {
+            assertTrue(game.isFree(i));
+        }
+    }
+
+    @Test
+    public void resumedTurnWaitsForCancelledOne() throws Exception {
+        final CountDownLatch searching = new CountDownLatch(1);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger mostActive = new AtomicInteger();
+        // only notices being cancelled after its search, like a bot checking the clock now and then
+        Bot stubborn = new TTTBot(2, 2) {
+            @Override
+            public int getMoveIndex(TTTBoard board) {
+                int now = active.incrementAndGet();
+                try {
+                    for (int most = mostActive.get(); now > most; most = mostActive.get()) {
+                        mostActive.compareAndSet(most, now);
+                    }
+                    searching.countDown();
+                    long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                    while (System.nanoTime() < end) {
+                        Thread.yield();
+                    }
+                    return super.getMoveIndex(board);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            TTTGame game = new TTTGame(1, new Bot[] {stubborn});
+            game.setDebug(false);
+            game.setExecutors(pool, null);
+            game.addMoveAsync(XYCoordinate.valueOf(1, 1), null);
+            assertTrue(searching.await(10, TimeUnit.SECONDS));
+            game.cancelBots();
+            Latch done = new Latch();
+            game.playBotsAsync(done);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(1, mostActive.get());
+            assertEquals(1, game.getCurrentPlayer());
+            int taken = 0;
+            for (int i = 0; i < game.getHorizontalSize() * game.getVerticalSize(); ++i) {
+                if (!game.isFree(i)) {
+                    taken++;
+                }
+            }
+            assertEquals(2, taken);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void listenersSeeEveryChange() throws Exception {
+        final StringBuilder events = new StringBuilder();
+        TTTGame game = new TTTGame(2);
+        game.addGameListener(new GameListener() {
+            @Override
+            public void moveMade(Coordinate pos, int player) {
+                events.append("move "+player+pos+" ");
+            }
+
+            @Override
+            public void moveUndone(Coordinate pos, int player) {
+                events.append("undo "+player+pos+" ");
+            }
+
+            @Override
+            public void gameWon(Coordinate pos, int player) {
+                events.append("win "+player+pos+" ");
+            }
+
+            @Override
+            public void gameDrawn(Coordinate pos) {
+                events.append("draw"+pos+" ");
+            }
+        });
+        game.addMove(XYCoordinate.valueOf(0, 0));
+        game.addMove(XYCoordinate.valueOf(1, 0));
+        game.undoMove();
+        assertEquals("move 1XYCoord(0,0) move 2XYCoord(1,0) undo 2XYCoord(1,0) ", events.toString());
+
+        events.setLength(0);
+        game.addMove(XYCoordinate.valueOf(2, 0));
+        game.addMove(XYCoordinate.valueOf(0, 1));
+        game.addMove(XYCoordinate.valueOf(2, 1));
+        game.addMove(XYCoordinate.valueOf(0, 2));
+        assertEquals("move 2XYCoord(2,0) move 1XYCoord(0,1) move 2XYCoord(2,1) "
+                + "move 1XYCoord(0,2) win 1XYCoord(0,2) ", events.toString());
+    }
+
+    @Test
+    public void rejectsMovesAfterTheGameIsOver() throws Exception {
+        TTTGame game = new TTTGame(2);
+        game.addMove(XYCoordinate.valueOf(0, 0));
+        game.addMove(XYCoordinate.valueOf(1, 0));
+        game.addMove(XYCoordinate.valueOf(0, 1));
+        game.addMove(XYCoordinate.valueOf(1, 1));
+        game.addMove(XYCoordinate.valueOf(0, 2));
+        assertTrue(game.isOver());
+        assertEquals(1, game.getWinner());
+        try {
+            game.addMove(XYCoordinate.valueOf(2, 2));
+            fail("Move after a win accepted");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            game.addMoveAsync(XYCoordinate.valueOf(2, 2), null);
+            fail("Move after a win accepted");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertTrue(game.isFree(XYCoordinate.valueOf(2, 2)));
+        assertTrue(game.isOver());
+        assertEquals(1, game.getWinner());
+    }
+}
@@ -0,0 +1,36 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TournamentTest {
+
+    @Test
+    public void playsEveryGame() throws Exception {
+        for (int numPlayers = 2; numPlayers <= 3; ++numPlayers) {
+            Tournament.Result result = new Tournament(numPlayers, 2).run(101, 3);
+            assertEquals(101, result.getGames());
+            long results = 0;
+            for (int seat = 0; seat <= numPlayers; ++seat) {
+                results += result.getWins(seat);
+            }
+            assertEquals(101, results);
+            long moves = 0;
+            for (int seat = 1; seat <= numPlayers; ++seat) {
+                assertTrue("seat "+seat, result.getMoveLatency(seat).getCount() > 0);
+                moves += result.getMoveLatency(seat).getCount();
+            }
+            assertEquals(moves, result.getMoveLatency().getCount());
+        }
+    }
+
+    @Test
+    public void playsFewerGamesThanThreads() throws Exception {
+        Tournament.Result result = new Tournament(2, 0).run(2, 4);
+        assertEquals(2, result.getGames());
+        assertEquals(2, result.getWins(0) + result.getWins(1) + result.getWins(2));
+        // without random plies the first player always moves first with its bot
+        assertTrue(result.getMoveLatency(1).getCount() >= 2);
+    }
+}
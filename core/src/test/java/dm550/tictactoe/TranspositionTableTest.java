@@ -0,0 +1,89 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storesAndProbes() throws Exception {
+        TranspositionTable table = new TranspositionTable(4, TranspositionTable.ReplacementPolicy.ALWAYS);
+        assertEquals(0, table.probe(0x1234L));
+        table.store(0x1234L, -1000042, 7, TranspositionTable.LOWER, 12);
+        long entry = table.probe(0x1234L);
+        assertEquals(-1000042, TranspositionTable.value(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(12, TranspositionTable.move(entry));
+        // same slot, different position
+        assertEquals(0, table.probe(0x1234L + 16));
+        assertEquals(3, table.getProbes());
+        assertEquals(1, table.getHits());
+        table.clear();
+        assertEquals(0, table.probe(0x1234L));
+        assertEquals(1, table.getProbes());
+    }
+
+    @Test
+    public void decodesEveryField() throws Exception {
+        TranspositionTable table = new TranspositionTable(4, TranspositionTable.ReplacementPolicy.ALWAYS);
+        int[] values = {0, 1, -1, Integer.MAX_VALUE, -Integer.MAX_VALUE, Integer.MIN_VALUE};
+        int[] bounds = {TranspositionTable.EXACT, TranspositionTable.LOWER, TranspositionTable.UPPER};
+        int[] moves = {-1, 0, 1000, TranspositionTable.MAX_MOVE};
+        for (int value : values) {
+            for (int bound : bounds) {
+                for (int move : moves) {
+                    for (int depth = 0; depth <= 255; depth += 85) {
+                        table.store(5, value, depth, bound, move);
+                        long entry = table.probe(5);
+                        assertEquals(value, TranspositionTable.value(entry));
+                        assertEquals(depth, TranspositionTable.depth(entry));
+                        assertEquals(bound, TranspositionTable.bound(entry));
+                        assertEquals(move, TranspositionTable.move(entry));
+                    }
+                }
+            }
+        }
+        // deeper searches are kept as 255, moves that do not fit are dropped rather than mixed up
+        table.store(5, 0, 1000, TranspositionTable.EXACT, TranspositionTable.MAX_MOVE + 1);
+        long entry = table.probe(5);
+        assertEquals(255, TranspositionTable.depth(entry));
+        assertEquals(-1, TranspositionTable.move(entry));
+        assertEquals(TranspositionTable.EXACT, TranspositionTable.bound(entry));
+        try {
+            table.store(5, 0, 1, 0, 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void prefersDeeperEntries() throws Exception {
+        // in a table of two slots, keys 1 and 3 share slot 1
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        table.newSearch();
+        table.store(1, 10, 5, TranspositionTable.EXACT, 0);
+        table.store(3, 20, 4, TranspositionTable.EXACT, 1);
+        assertEquals(10, TranspositionTable.value(table.probe(1)));
+        assertEquals(0, table.probe(3));
+        // the same position is always updated, even with a shallower result
+        table.store(1, 11, 2, TranspositionTable.EXACT, 0);
+        assertEquals(11, TranspositionTable.value(table.probe(1)));
+        table.store(3, 20, 2, TranspositionTable.EXACT, 1);
+        assertEquals(20, TranspositionTable.value(table.probe(3)));
+        // entries of an earlier search give way to anything
+        table.store(1, 12, 9, TranspositionTable.EXACT, 0);
+        table.newSearch();
+        table.store(3, 21, 1, TranspositionTable.EXACT, 1);
+        assertEquals(21, TranspositionTable.value(table.probe(3)));
+        assertEquals(0, table.probe(1));
+
+        TranspositionTable always = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        always.store(1, 10, 5, TranspositionTable.EXACT, 0);
+        always.store(3, 20, 4, TranspositionTable.EXACT, 1);
+        assertEquals(0, always.probe(1));
+        assertEquals(20, TranspositionTable.value(always.probe(3)));
+    }
+}
@@ -0,0 +1,46 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class XYCoordinateTest {
+
+    @Test
+    public void sharesInstancesInsideTheCache() throws Exception {
+        int[][] cached = {{0, 0}, {2, 1}, {-8, -8}, {119, 119}, {-8, 119}};
+        for (int[] xy : cached) {
+            XYCoordinate coord = XYCoordinate.valueOf(xy[0], xy[1]);
+            assertSame(coord, XYCoordinate.valueOf(xy[0], xy[1]));
+            assertEquals(new XYCoordinate(xy[0], xy[1]), coord);
+            assertEquals(xy[0], coord.getX());
+            assertEquals(xy[1], coord.getY());
+        }
+        assertSame(XYCoordinate.valueOf(3, 4), XYCoordinate.valueOf(2, 5).shift(1, -1));
+    }
+
+    @Test
+    public void comparesByValueOutsideTheCache() throws Exception {
+        int[][] uncached = {{-9, 0}, {0, -9}, {120, 5}, {5, 120}, {1000, -1000}, {Integer.MAX_VALUE, Integer.MIN_VALUE}};
+        for (int[] xy : uncached) {
+            XYCoordinate first = XYCoordinate.valueOf(xy[0], xy[1]);
+            XYCoordinate second = XYCoordinate.valueOf(xy[0], xy[1]);
+            assertEquals(first, second);
+            assertEquals(first.hashCode(), second.hashCode());
+            assertEquals(new XYCoordinate(xy[0], xy[1]), first);
+            assertEquals(xy[0], first.getX());
+            assertEquals(xy[1], first.getY());
+        }
+        assertFalse(XYCoordinate.valueOf(1, 2).equals(XYCoordinate.valueOf(2, 1)));
+        assertFalse(XYCoordinate.valueOf(200, 1).equals(XYCoordinate.valueOf(1, 200)));
+    }
+
+    @Test
+    public void checksBoundaries() throws Exception {
+        assertTrue(XYCoordinate.valueOf(0, 2).checkBoundaries(3, 3));
+        assertFalse(XYCoordinate.valueOf(3, 0).checkBoundaries(3, 3));
+        assertFalse(XYCoordinate.valueOf(0, -1).checkBoundaries(3, 3));
+        assertTrue(XYCoordinate.valueOf(-5, 2).checkBoundaries(Coordinate.UNBOUNDED, 3));
+        assertFalse(XYCoordinate.valueOf(-5, 3).checkBoundaries(Coordinate.UNBOUNDED, 3));
+    }
+}
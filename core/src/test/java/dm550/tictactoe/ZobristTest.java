@@ -0,0 +1,29 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ZobristTest {
+
+    @Test
+    public void keysDifferForEveryCellAndPlayer() throws Exception {
+        Set<Long> keys = new HashSet<Long>();
+        for (int cell = 0; cell < 64; ++cell) {
+            for (int player = 1; player <= 300; ++player) {
+                assertTrue(cell+" "+player, keys.add(Zobrist.key(cell, player)));
+            }
+        }
+        assertNotEquals(Zobrist.key(1, 0), Zobrist.key(0, 256));
+    }
+
+    @Test
+    public void tablesHoldTheKeys() throws Exception {
+        long[] table = Zobrist.table(9, 300);
+        assertEquals(Zobrist.key(4, 300), table[300 * 9 + 4]);
+        assertSame(table, Zobrist.table(9, 300));
+    }
+}
@@ -0,0 +1,433 @@
+package dm550.tictactoe;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** hosts many TTTGame sessions for players connecting over local sockets
+ * every connection is served by its own thread, a virtual thread where the JVM has them (Java 21+),
+ * the bots of all sessions move on one shared pool, and sessions nobody used for a while are evicted
+ * a connection may play any number of sessions, sessions outlive the connection that created them
+ * the protocol is line based, every command gets one line in reply, "ERR <message>" if it failed:
+ *   NEW <humans> <bots> [<width> <height> <run length>]  -> OK <id> <state>
+ *     (1 to 35 players, at most 4096 cells, run length at most the longer side)
+ *   MOVE <id> <x> <y>                                    -> OK <id> <state>   (after the bots' replies)
+ *   STATE <id>                                           -> OK <id> <state>
+ *   END <id>                                             -> OK <id>
+ *   QUIT                                                 -> BYE
+ * where <state> is "TURN <player>", "WIN <player>" or "DRAW" followed by the cells row by row,
+ * '.' for a free cell and the player's number in base 36 otherwise, e.g. "OK 7 TURN 1 1.2......"
+ * the bots' moves are recorded in the metrics "bot.TTTBot", the players' moves in "game.addMove",
+ * both are exposed through JMX (see MetricsJmx) and, given a report period, printed periodically
+ * usage: GameServer [port] [idle seconds] [bot threads] [report seconds]
+ */
+public class GameServer implements Closeable {
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long idleSeconds = args.length > 1 ? Long.parseLong(args[1]) : 300;
+        int botThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long reportSeconds = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        GameServer server = new GameServer(port, TimeUnit.SECONDS.toMillis(idleSeconds), botThreads);
+        MetricsJmx.countAllocations();
+        MetricsJmx.register();
+        if (reportSeconds > 0) {
+            Metrics.report(System.out, reportSeconds, TimeUnit.SECONDS);
+        }
+        server.start();
+        System.out.println("Serving games on localhost:"+server.getPort()
+                +(hasVirtualThreads() ? " with virtual threads" : " with platform threads"));
+    }
+
+    public static final int DEFAULT_PORT = 5500;
+
+    /** largest board a session may ask for, so no client can make the server allocate without bound
+     * this also bounds the number of shapes kept in the shared BoardGeometry and Zobrist caches
+     */
+    static final int MAX_CELLS = 4096;
+
+    /** most players in a session, each has to fit into one base 36 digit of the state */
+    static final int MAX_PLAYERS = 35;
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    /** one game and when it was used last */
+    private static class Session {
+        final TTTGame game;
+        volatile long lastUsed = System.nanoTime();
+
+        Session(TTTGame game) {
+            this.game = game;
+        }
+    }
+
+    private final ServerSocket serverSocket;
+
+    /** runs one task per connection */
+    private final ExecutorService connections = newThreadPerTaskExecutor("GameServer connection");
+
+    /** the bots of all sessions move here */
+    private final ExecutorService bots;
+
+    /** evicts idle sessions */
+    private final ScheduledExecutorService evictor =
+            Executors.newSingleThreadScheduledExecutor(daemonThreads("GameServer evictor"));
+
+    private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<Long, Session>();
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    /** open connections, closed with the server */
+    private final Set<Socket> open = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+
+    /** sessions not used for this long are evicted */
+    private final long idleNanos;
+
+    /** where the bots' moves and the players' moves are recorded */
+    private final MoveMetrics botMetrics = Metrics.get("bot.TTTBot");
+    private final MoveMetrics moveMetrics = Metrics.get("game.addMove");
+
+    /** constructor listening on the given port of the loopback interface, 0 for any free port
+     * sessions idle for idleMillis are evicted, bots move on botThreads threads
+     */
+    public GameServer(int port, long idleMillis, int botThreads) throws IOException {
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.bots = Executors.newFixedThreadPool(botThreads, daemonThreads("GameServer bots"));
+    }
+
+    /** starts accepting connections and evicting idle sessions in the background */
+    public void start() {
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                GameServer.this.accept();
+            }
+        }, "GameServer acceptor");
+        acceptor.start();
+        long period = Math.max(TimeUnit.NANOSECONDS.toMillis(this.idleNanos) / 4, 10);
+        this.evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                GameServer.this.evictIdle();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** getter for the port the server listens on */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /** returns the number of sessions currently hosted */
+    public int getSessionCount() {
+        return this.sessions.size();
+    }
+
+    /** stops accepting connections, closes the open ones and drops all sessions */
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        this.evictor.shutdownNow();
+        this.connections.shutdownNow();
+        this.bots.shutdownNow();
+        for (Socket socket : this.open) {
+            socket.close();
+        }
+        this.sessions.clear();
+    }
+
+    /** removes the sessions that have not been used for the idle time, returns how many */
+    int evictIdle() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Iterator<Session> it = this.sessions.values().iterator(); it.hasNext(); ) {
+            Session session = it.next();
+            if (now - session.lastUsed > this.idleNanos) {
+                it.remove();
+                session.game.cancelBots();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /** accepts connections until the server socket is closed */
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (IOException e) {
+                // closed
+                return;
+            }
+            try {
+                this.connections.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        GameServer.this.serve(socket);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // closed in the meantime
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // nothing left to do
+                }
+                return;
+            }
+        }
+    }
+
+    /** answers the commands of one connection until it quits or goes away */
+    private void serve(Socket socket) {
+        this.open.add(socket);
+        try {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), ASCII));
+            StringBuilder reply = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null) {
+                reply.setLength(0);
+                boolean quit = this.handle(line.trim(), reply);
+                reply.append('\n');
+                out.append(reply);
+                out.flush();
+                if (quit) {
+                    break;
+                }
+            }
+        } catch (SocketException e) {
+            // connection reset or server closed
+        } catch (IOException e) {
+            System.err.println("Connection failed: "+e);
+        } finally {
+            this.open.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing left to do
+            }
+        }
+    }
+
+    /** executes one command, appending the reply to the given builder
+     * returns true if the connection should be closed afterwards
+     */
+    boolean handle(String line, StringBuilder reply) {
+        String[] words = line.split("\\s+");
+        try {
+            String command = words[0].toUpperCase();
+            if (command.equals("QUIT")) {
+                reply.append("BYE");
+                return true;
+            } else if (command.equals("NEW")) {
+                this.create(words, reply);
+            } else if (command.equals("MOVE")) {
+                expectWords(words, 4);
+                long id = Long.parseLong(words[1]);
+                Session session = this.session(id);
+                TTTGame game = session.game;
+                int x = Integer.parseInt(words[2]);
+                int y = Integer.parseInt(words[3]);
+                // the game checks under its lock that it is not over and no bots are moving
+                await(game.addMoveAsync(XYCoordinate.valueOf(x, y), null));
+                session.lastUsed = System.nanoTime();
+                reply.append("OK ").append(id).append(' ');
+                appendState(game, reply);
+            } else if (command.equals("STATE")) {
+                expectWords(words, 2);
+                long id = Long.parseLong(words[1]);
+                reply.append("OK ").append(id).append(' ');
+                appendState(this.session(id).game, reply);
+            } else if (command.equals("END")) {
+                expectWords(words, 2);
+                long id = Long.parseLong(words[1]);
+                Session session = this.sessions.remove(id);
+                if (session == null) {
+                    throw new IllegalArgumentException("No session "+id);
+                }
+                session.game.cancelBots();
+                reply.append("OK ").append(id);
+            } else {
+                throw new IllegalArgumentException("Unknown command "+words[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            // also covers malformed numbers
+            error(e, reply);
+        } catch (IllegalStateException e) {
+            error(e, reply);
+        } catch (RuntimeException e) {
+            // a failing bot must not take the connection down with it
+            System.err.println("Command "+line+" failed: "+e);
+            error(e, reply);
+        }
+        return false;
+    }
+
+    /** body of NEW */
+    private void create(String[] words, StringBuilder reply) {
+        if (words.length != 3 && words.length != 6) {
+            throw new IllegalArgumentException("Usage: NEW <humans> <bots> [<width> <height> <run length>]");
+        }
+        int humans = Integer.parseInt(words[1]);
+        int numBots = Integer.parseInt(words[2]);
+        long players = (long) humans + numBots;
+        if (humans < 0 || numBots < 0 || players < 1 || players > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Between 1 and "+MAX_PLAYERS+" players must play");
+        }
+        int size = humans + numBots + 1;
+        int width = words.length == 6 ? Integer.parseInt(words[3]) : size;
+        int height = words.length == 6 ? Integer.parseInt(words[4]) : size;
+        int runLength = words.length == 6 ? Integer.parseInt(words[5]) : 3;
+        if (width < 1 || height < 1 || (long) width * height > MAX_CELLS) {
+            throw new IllegalArgumentException("Board must have between 1 and "+MAX_CELLS+" cells");
+        }
+        if (players > (long) width * height) {
+            throw new IllegalArgumentException("More players than cells");
+        }
+        if (runLength < 1 || runLength > Math.max(width, height)) {
+            throw new IllegalArgumentException("Run length must fit on the board");
+        }
+        Bot[] bots = new Bot[numBots];
+        for (int i = 0; i < numBots; ++i) {
+            bots[i] = new MeteredBot(this.createBot(humans + i + 1, humans + numBots), this.botMetrics);
+        }
+        TTTGame game = new TTTGame(humans, bots, width, height, runLength);
+        game.setDebug(false);
+        game.setMetrics(this.moveMetrics);
+        game.setExecutors(this.bots, null);
+        if (humans == 0) {
+            await(game.playBotsAsync(null));
+        }
+        long id = this.nextId.incrementAndGet();
+        this.sessions.put(id, new Session(game));
+        reply.append("OK ").append(id).append(' ');
+        appendState(game, reply);
+    }
+
+    /** creates the bot for the given seat of a new session, override to serve other bots */
+    protected Bot createBot(int id, int numPlayers) {
+        return new TTTBot(id, numPlayers);
+    }
+
+    /** returns the session with the given id */
+    private Session session(long id) {
+        Session session = this.sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("No session "+id);
+        }
+        session.lastUsed = System.nanoTime();
+        return session;
+    }
+
+    /** waits for the bots' turn to finish, rethrowing its failure */
+    private static void await(Future<?> turn) {
+        try {
+            turn.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Bot failed", e.getCause());
+        } catch (InterruptedException e) {
+            turn.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Server shutting down");
+        }
+    }
+
+    /** appends the status and the cells of the game */
+    private static void appendState(TTTGame game, StringBuilder reply) {
+        synchronized (game) {
+            if (game.getWinner() > 0) {
+                reply.append("WIN ").append(game.getWinner());
+            } else if (game.isOver()) {
+                reply.append("DRAW");
+            } else {
+                reply.append("TURN ").append(game.getCurrentPlayer());
+            }
+            reply.append(' ');
+            int cells = game.getHorizontalSize() * game.getVerticalSize();
+            for (int i = 0; i < cells; ++i) {
+                String content = game.getContent(i);
+                reply.append(content.isEmpty() ? '.' : Character.forDigit(Integer.parseInt(content), 36));
+            }
+        }
+    }
+
+    private static void expectWords(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException("Expected "+(count - 1)+" arguments to "+words[0]);
+        }
+    }
+
+    private static void error(RuntimeException e, StringBuilder reply) {
+        reply.setLength(0);
+        reply.append("ERR ").append(e.getMessage() == null ? e.toString() : e.getMessage());
+    }
+
+    /** returns true if the JVM has virtual threads */
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /** returns an executor starting a new thread for every task
+     * virtual threads if the JVM has them, looked up reflectively so the server still runs on older JVMs,
+     * otherwise a cached pool of daemon threads
+     */
+    static ExecutorService newThreadPerTaskExecutor(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemonThreads(name));
+        }
+    }
+
+    /** thread factory for numbered daemon threads with the given name */
+    static ThreadFactory daemonThreads(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name+" "+this.count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
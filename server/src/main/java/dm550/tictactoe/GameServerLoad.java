@@ -0,0 +1,196 @@
+package dm550.tictactoe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/** load generator for GameServer
+ * opens the given number of connections to a server on localhost, each playing one game against a bot
+ * after another with random moves, and reports how many sessions and moves the server handled per second
+ * without a port it starts a server of its own in the same JVM and also prints its metrics
+ * usage: GameServerLoad [connections] [seconds] [port]
+ */
+public class GameServerLoad {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        GameServer server = null;
+        int port;
+        if (args.length > 2) {
+            port = Integer.parseInt(args[2]);
+        } else {
+            server = new GameServer(0, TimeUnit.MINUTES.toMillis(1), Runtime.getRuntime().availableProcessors());
+            MetricsJmx.countAllocations();
+            server.start();
+            port = server.getPort();
+        }
+        try {
+            System.out.println(new GameServerLoad(port).run(connections, TimeUnit.SECONDS.toMillis(seconds)));
+            if (server != null) {
+                System.out.print(Metrics.snapshot());
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    /** counts of a load run, or of one connection's share of it */
+    public static class Result {
+        private long sessions;
+        private long moves;
+        private long errors;
+        private long nanos;
+        private int connections;
+
+        void merge(Result other) {
+            this.sessions += other.sessions;
+            this.moves += other.moves;
+            this.errors += other.errors;
+        }
+
+        /** getter for the number of games played to the end */
+        public long getSessions() {
+            return this.sessions;
+        }
+
+        /** getter for the number of moves made, including the bots' */
+        public long getMoves() {
+            return this.moves;
+        }
+
+        /** getter for the number of commands the server rejected */
+        public long getErrors() {
+            return this.errors;
+        }
+
+        public String toString() {
+            double seconds = this.nanos / 1e9;
+            return String.format("%d connections: %d sessions, %d moves in %.1fs, %.0f sessions/s, %.0f moves/s, %d errors",
+                    this.connections, this.sessions, this.moves, seconds,
+                    this.sessions / seconds, this.moves / seconds, this.errors);
+        }
+    }
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private final int port;
+
+    /** constructor for a load generator against the server on the given port of localhost */
+    public GameServerLoad(int port) {
+        this.port = port;
+    }
+
+    /** plays games on the given number of connections at once for the given time */
+    public Result run(int connections, long millis) throws InterruptedException, IOException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        List<Callable<Result>> clients = new ArrayList<Callable<Result>>();
+        for (int c = 0; c < connections; ++c) {
+            final long seed = c;
+            clients.add(new Callable<Result>() {
+                @Override
+                public Result call() throws IOException {
+                    return GameServerLoad.this.play(deadline, new Random(seed));
+                }
+            });
+        }
+
+        ExecutorService pool = GameServer.newThreadPerTaskExecutor("GameServerLoad client");
+        Result total = new Result();
+        total.connections = connections;
+        long start = System.nanoTime();
+        try {
+            for (Future<Result> result : pool.invokeAll(clients)) {
+                total.merge(result.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Load client failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        total.nanos = System.nanoTime() - start;
+        return total;
+    }
+
+    /** plays games on one connection until the deadline */
+    private Result play(long deadline, Random random) throws IOException {
+        Result result = new Result();
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.port);
+        try {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), ASCII));
+            OutputStream out = socket.getOutputStream();
+            while (System.nanoTime() < deadline) {
+                String[] state = command(in, out, "NEW 1 1").split(" ");
+                String id = state[1];
+                while (state[2].equals("TURN")) {
+                    String cells = state[state.length - 1];
+                    int free = 0;
+                    for (int i = 0; i < cells.length(); ++i) {
+                        if (cells.charAt(i) == '.') {
+                            free++;
+                        }
+                    }
+                    int move = nthFree(cells, random.nextInt(free));
+                    int width = (int) Math.round(Math.sqrt(cells.length()));
+                    String reply = command(in, out, "MOVE "+id+" "+(move % width)+" "+(move / width));
+                    if (reply.startsWith("ERR")) {
+                        result.errors++;
+                        break;
+                    }
+                    state = reply.split(" ");
+                }
+                String cells = state[state.length - 1];
+                for (int i = 0; i < cells.length(); ++i) {
+                    if (cells.charAt(i) != '.') {
+                        result.moves++;
+                    }
+                }
+                command(in, out, "END "+id);
+                result.sessions++;
+            }
+            command(in, out, "QUIT");
+        } finally {
+            socket.close();
+        }
+        return result;
+    }
+
+    /** returns the index of the n-th free cell */
+    private static int nthFree(String cells, int n) {
+        for (int i = 0; i < cells.length(); ++i) {
+            if (cells.charAt(i) == '.' && n-- == 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No free cell");
+    }
+
+    /** sends one command and returns the reply */
+    private static String command(BufferedReader in, OutputStream out, String command) throws IOException {
+        out.write((command+"\n").getBytes(ASCII));
+        out.flush();
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new IOException("Server closed the connection");
+        }
+        return reply;
+    }
+}
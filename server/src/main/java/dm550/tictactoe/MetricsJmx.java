@@ -0,0 +1,121 @@
+package dm550.tictactoe;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/** exposes the Metrics of the process through JMX, one MXBean per MoveMetrics named
+ * "dm550.tictactoe:type=MoveMetrics,name=<name>", e.g. for jconsole
+ * also lets the metrics count allocations with the JVM's per-thread allocation counter, where it has one
+ */
+public final class MetricsJmx {
+
+    static final String DOMAIN = "dm550.tictactoe";
+
+    private MetricsJmx() {
+    }
+
+    /** the MXBean of one MoveMetrics, each getter looks at the current counts */
+    private static class View implements MoveMetricsMXBean {
+        private final MoveMetrics metrics;
+
+        View(MoveMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public long getMoves() {
+            return this.metrics.getMoves();
+        }
+
+        @Override
+        public long getWork() {
+            return this.metrics.getWork();
+        }
+
+        @Override
+        public long getAllocatedBytes() {
+            return this.metrics.getAllocatedBytes();
+        }
+
+        @Override
+        public double getMeanNanos() {
+            return this.metrics.getLatency().getMean();
+        }
+
+        @Override
+        public long getP50Nanos() {
+            return this.metrics.getLatency().getPercentile(50);
+        }
+
+        @Override
+        public long getP90Nanos() {
+            return this.metrics.getLatency().getPercentile(90);
+        }
+
+        @Override
+        public long getP99Nanos() {
+            return this.metrics.getLatency().getPercentile(99);
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return this.metrics.getLatency().getMax();
+        }
+
+        @Override
+        public String getSummary() {
+            return this.metrics.toString();
+        }
+    }
+
+    /** counts allocations with com.sun.management.ThreadMXBean if the JVM supports it
+     * returns false if it does not, then allocations stay uncounted
+     */
+    public static boolean countAllocations() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported()) {
+            return false;
+        }
+        allocations.setThreadAllocatedMemoryEnabled(true);
+        Metrics.setAllocationCounter(new Metrics.AllocationCounter() {
+            @Override
+            public long getThreadAllocatedBytes() {
+                // -1 for threads the JVM does not count, e.g. virtual ones
+                return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        });
+        return true;
+    }
+
+    /** registers an MXBean for every MoveMetrics not registered yet with the platform MBean server
+     * call it again after creating more metrics
+     */
+    public static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (MoveMetrics metrics : Metrics.getAll()) {
+            try {
+                ObjectName name = objectName(metrics);
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(new View(metrics), name);
+                }
+            } catch (InstanceAlreadyExistsException e) {
+                // registered by another thread meanwhile
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot register metrics "+metrics.getName(), e);
+            }
+        }
+    }
+
+    /** returns the name the MXBean of the given metrics is registered under */
+    static ObjectName objectName(MoveMetrics metrics) throws JMException {
+        return new ObjectName(DOMAIN+":type=MoveMetrics,name="+ObjectName.quote(metrics.getName()));
+    }
+}
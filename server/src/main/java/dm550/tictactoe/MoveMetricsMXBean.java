@@ -0,0 +1,29 @@
+package dm550.tictactoe;
+
+/** management interface of one MoveMetrics, registered by MetricsJmx
+ * latencies are in nanoseconds
+ */
+public interface MoveMetricsMXBean {
+
+    /** number of moves recorded */
+    long getMoves();
+
+    /** work done by the moves, e.g. cells scored or nodes searched */
+    long getWork();
+
+    /** bytes allocated by the moves, 0 if allocations are not counted */
+    long getAllocatedBytes();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getMaxNanos();
+
+    /** one line summary, as in the text snapshot */
+    String getSummary();
+}
@@ -0,0 +1,130 @@
+package dm550.tictactoe;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.Assert.*;
+
+public class GameServerTest {
+
+    private static String handle(GameServer server, String line) {
+        StringBuilder reply = new StringBuilder();
+        server.handle(line, reply);
+        return reply.toString();
+    }
+
+    @Test
+    public void playsAgainstTheBot() throws Exception {
+        GameServer server = new GameServer(0, 60000, 1);
+        try {
+            assertEquals("OK 1 TURN 1 .........", handle(server, "NEW 1 1"));
+            String reply = handle(server, "MOVE 1 1 1");
+            assertTrue(reply, reply.matches("OK 1 TURN 1 [.2]{4}1[.2]{4}"));
+            assertEquals(1, reply.length() - reply.replace("2", "").length());
+            assertTrue(handle(server, "MOVE 1 1 1").startsWith("ERR"));
+            assertTrue(handle(server, "MOVE 1 3 0").startsWith("ERR"));
+            assertTrue(handle(server, "MOVE 2 0 0").startsWith("ERR"));
+            assertTrue(handle(server, "FOO").startsWith("ERR"));
+            assertEquals(reply, handle(server, "STATE 1"));
+            assertEquals("OK 1", handle(server, "END 1"));
+            assertEquals(0, server.getSessionCount());
+
+            // requests the server could not survive or answer are rejected without creating a session
+            assertTrue(handle(server, "NEW 2000000000 0 10 10 3").startsWith("ERR"));
+            assertTrue(handle(server, "NEW 2147483647 2147483647").startsWith("ERR"));
+            assertTrue(handle(server, "NEW 36 0 10 10 3").startsWith("ERR"));
+            assertTrue(handle(server, "NEW 0 0 3 3 3").startsWith("ERR"));
+            assertTrue(handle(server, "NEW 5 5 3 3 3").startsWith("ERR"));
+            assertTrue(handle(server, "NEW 1 1 -64 -64 3").startsWith("ERR"));
+            assertTrue(handle(server, "NEW 1 1 10 10 2097155").startsWith("ERR"));
+            assertEquals(0, server.getSessionCount());
+
+            // bots only, played to the end right away
+            reply = handle(server, "NEW 0 2 4 4 3");
+            assertTrue(reply, reply.matches("OK 2 (WIN [12]|DRAW) [.12]{16}"));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void repliesWhenTheGameOrABotFails() throws Exception {
+        GameServer server = new GameServer(0, 60000, 1) {
+            @Override
+            protected Bot createBot(int id, int numPlayers) {
+                return new TTTBot(id, numPlayers) {
+                    @Override
+                    public int getMoveIndex(TTTBoard board) {
+                        throw new UnsupportedOperationException("Broken bot");
+                    }
+                };
+            }
+        };
+        try {
+            assertEquals("OK 1 TURN 1 .........", handle(server, "NEW 1 1"));
+            assertEquals("ERR Broken bot", handle(server, "MOVE 1 0 0"));
+            assertEquals("OK 1 TURN 2 1........", handle(server, "STATE 1"));
+
+            assertEquals("OK 2 TURN 1 .........", handle(server, "NEW 2 0 3 3 3"));
+            handle(server, "MOVE 2 0 0");
+            handle(server, "MOVE 2 1 0");
+            handle(server, "MOVE 2 0 1");
+            handle(server, "MOVE 2 1 1");
+            assertEquals("OK 2 WIN 1 12.12.1..", handle(server, "MOVE 2 0 2"));
+            assertEquals("ERR Game is over", handle(server, "MOVE 2 2 2"));
+            assertEquals("OK 2 WIN 1 12.12.1..", handle(server, "STATE 2"));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void evictsIdleSessions() throws Exception {
+        GameServer server = new GameServer(0, 0, 1);
+        try {
+            handle(server, "NEW 2 0");
+            handle(server, "NEW 2 0");
+            assertEquals(2, server.getSessionCount());
+            Thread.sleep(1);
+            assertEquals(2, server.evictIdle());
+            assertTrue(handle(server, "STATE 1").startsWith("ERR"));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void servesConnections() throws Exception {
+        GameServer server = new GameServer(0, 60000, 2);
+        server.start();
+        try {
+            GameServerLoad.Result result = new GameServerLoad(server.getPort()).run(8, 200);
+            assertTrue(result.getSessions() > 0);
+            assertTrue(result.getMoves() >= 5 * result.getSessions());
+            assertEquals(0, result.getErrors());
+            assertEquals(0, server.getSessionCount());
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void exposesMetricsThroughJmx() throws Exception {
+        GameServer server = new GameServer(0, 60000, 1);
+        try {
+            MetricsJmx.register();
+            long before = Metrics.get("bot.TTTBot").getMoves();
+            handle(server, "NEW 1 1");
+            handle(server, "MOVE 1 0 0");
+            ObjectName name = MetricsJmx.objectName(Metrics.get("bot.TTTBot"));
+            MBeanServer beans = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(before + 1, beans.getAttribute(name, "Moves"));
+            assertTrue((Long) beans.getAttribute(name, "MaxNanos") > 0);
+        } finally {
+            server.close();
+        }
+    }
+}